@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.NoBenchmarksException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Runs every suite with the GC profiler attached, so each result reports both
+ * ops/s and the allocation rate (gc.alloc.rate and gc.alloc.rate.norm).
+ *
+ * Two kinds of suites exist :
+ * - Stream suites sweep their thread count themselves through a "parallelism" parameter (the size of the ForkJoinPool
+ *   the parallel pipeline runs on) and are run with a single JMH thread.
+ * - Suites whose name ends with "ContentionBenchmark" measure shared state, so they are run once per JMH thread count
+ *   given by -Dthreads (default 1,2,4,8).
+ *
+ * Usage : java -jar target/benchmarks.jar [regex]
+ * Results are written as CSV to the current directory, one file per pass. A pass the regex selects no suite of is
+ * skipped, so a regex may name stream suites only or contention suites only.
+ */
+public class BenchmarkRunner {
+
+	static final String CONTENTION = ".*ContentionBenchmark.*";
+
+	public static void main(String[] args) throws RunnerException {
+		String filter = args.length > 0 ? args[0] : ".*";
+		List<Integer> threadCounts = threadCounts(System.getProperty("threads", "1,2,4,8"));
+
+		Options streams = new OptionsBuilder()
+				.include(filter)
+				.exclude(CONTENTION)
+				.threads(1)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.CSV)
+				.result("jmh-streams.csv")
+				.build();
+		run(streams);
+
+		for (int threads : threadCounts) {
+			Options contention = new OptionsBuilder()
+					.include("^(?=" + CONTENTION + ").*(?:" + filter + ")")
+					.threads(threads)
+					.addProfiler(GCProfiler.class)
+					.resultFormat(ResultFormatType.CSV)
+					.result("jmh-contention-" + threads + "t.csv")
+					.build();
+			if (!run(contention)) {
+				break;	// the other thread counts select the same suites : none
+			}
+		}
+	}
+
+	/**
+	 * Runs a pass, returning false if its filters select no benchmark, which JMH reports by a NoBenchmarksException.
+	 */
+	static boolean run(Options options) throws RunnerException {
+		try {
+			new Runner(options).run();
+			return true;
+		} catch (NoBenchmarksException e) {
+			return false;
+		}
+	}
+
+	static List<Integer> threadCounts(String property) {
+		List<Integer> counts = new ArrayList<>();
+		for (String count : property.split(",")) {
+			counts.add(Integer.parseInt(count.trim()));
+		}
+		return counts;
+	}
+
+}
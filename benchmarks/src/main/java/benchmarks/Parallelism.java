@@ -0,0 +1,39 @@
+package benchmarks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Thread count sweep of the stream suites. A parallel stream started from a task running inside a ForkJoinPool
+ * is executed by the workers of that pool instead of the common pool, so the pool size is the thread count.
+ */
+@State(Scope.Benchmark)
+public class Parallelism {
+
+	@Param({"1", "2", "4", "8"})
+	public int parallelism;
+
+	ForkJoinPool pool;
+
+	@Setup
+	public void setup() {
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	public <T> T invoke(Callable<T> task) throws InterruptedException, ExecutionException {
+		return pool.submit(task).get();
+	}
+
+}
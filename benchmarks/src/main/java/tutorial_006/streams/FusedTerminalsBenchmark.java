@@ -0,0 +1,100 @@
+package tutorial_006.streams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.Parallelism;
+
+/**
+ * The five terminal operations of StreamsTest (anyMatch, allMatch, noneMatch, count, reduce) as five streams versus one
+ * FusedTerminals pass, sequential and parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FusedTerminalsBenchmark {
+
+	@Param({"100000", "1000000"})
+	int size;
+
+	List<String> strings;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		strings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			strings.add((char) ('a' + random.nextInt(26)) + Integer.toString(random.nextInt(1000)));
+		}
+	}
+
+	@Benchmark
+	public void separateStreams(Blackhole blackhole) {
+		blackhole.consume(strings.stream().anyMatch(s -> s.startsWith("a")));
+		blackhole.consume(strings.stream().allMatch(s -> s.startsWith("a")));
+		blackhole.consume(strings.stream().noneMatch(s -> s.startsWith("z")));
+		blackhole.consume(strings.stream().count());
+		blackhole.consume(strings.stream().reduce((s1, s2) -> s1.length() >= s2.length() ? s1 : s2));
+	}
+
+	@Benchmark
+	public void fused(Blackhole blackhole) {
+		evaluate(false, blackhole);
+	}
+
+	@Benchmark
+	public void separateStreamsParallel(Parallelism parallelism, Blackhole blackhole) throws InterruptedException, ExecutionException {
+		parallelism.invoke(() -> {
+			blackhole.consume(strings.parallelStream().anyMatch(s -> s.startsWith("a")));
+			blackhole.consume(strings.parallelStream().allMatch(s -> s.startsWith("a")));
+			blackhole.consume(strings.parallelStream().noneMatch(s -> s.startsWith("z")));
+			blackhole.consume(strings.parallelStream().count());
+			blackhole.consume(strings.parallelStream().reduce((s1, s2) -> s1.length() >= s2.length() ? s1 : s2));
+			return null;
+		});
+	}
+
+	@Benchmark
+	public void fusedParallel(Parallelism parallelism, Blackhole blackhole) throws InterruptedException, ExecutionException {
+		parallelism.invoke(() -> {
+			evaluate(true, blackhole);
+			return null;
+		});
+	}
+
+	void evaluate(boolean parallel, Blackhole blackhole) {
+		FusedTerminals<String> terminals = FusedTerminals.of(strings);
+		FusedTerminals.Terminal<Boolean> anyA = terminals.anyMatch(s -> s.startsWith("a"));
+		FusedTerminals.Terminal<Boolean> allA = terminals.allMatch(s -> s.startsWith("a"));
+		FusedTerminals.Terminal<Boolean> noneZ = terminals.noneMatch(s -> s.startsWith("z"));
+		FusedTerminals.Terminal<Long> count = terminals.count();
+		FusedTerminals.Terminal<Optional<String>> longest = terminals.reduce((s1, s2) -> s1.length() >= s2.length() ? s1 : s2);
+		FusedTerminals.Results results = parallel ? terminals.evaluateParallel() : terminals.evaluate();
+		blackhole.consume(results.get(anyA));
+		blackhole.consume(results.get(allA));
+		blackhole.consume(results.get(noneZ));
+		blackhole.consume(results.get(count));
+		blackhole.consume(results.get(longest));
+	}
+
+}
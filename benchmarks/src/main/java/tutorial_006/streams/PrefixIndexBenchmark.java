@@ -0,0 +1,80 @@
+package tutorial_006.streams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorted strings starting with a prefix, and their count, by filtering the whole list versus walking a PrefixIndex.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PrefixIndexBenchmark {
+
+	@Param({"100000", "1000000"})
+	int size;
+
+	@Param({"ab", "abcd"})
+	String prefix;
+
+	List<String> strings;
+	PrefixIndex index;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		strings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			char[] chars = new char[4 + random.nextInt(8)];
+			for (int j = 0; j < chars.length; j++) {
+				chars[j] = (char) ('a' + random.nextInt(26));
+			}
+			strings.add(new String(chars));
+		}
+		index = new PrefixIndex(strings);
+	}
+
+	@Benchmark
+	public List<String> filterSorted() {
+		return strings.stream().filter(s -> s.startsWith(prefix)).sorted().collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> indexWithPrefix() {
+		return index.withPrefix(prefix).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public long filterCount() {
+		return strings.stream().filter(s -> s.startsWith(prefix)).count();
+	}
+
+	@Benchmark
+	public int indexCount() {
+		return index.countWithPrefix(prefix);
+	}
+
+	@Benchmark
+	public PrefixIndex build() {
+		return new PrefixIndex(strings);
+	}
+
+}
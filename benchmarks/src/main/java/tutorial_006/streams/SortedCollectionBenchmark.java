@@ -0,0 +1,86 @@
+package tutorial_006.streams;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A request on a mostly unchanged list : one element added and one removed, then the first sorted elements. The list is
+ * sorted again by stream().sorted(), the SortedCollection is kept sorted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SortedCollectionBenchmark {
+
+	@Param({"10000", "1000000"})
+	int size;
+
+	List<String> list;
+	SortedCollection<String> sorted;
+	Random random;
+
+	@Setup
+	public void setup() {
+		random = new Random(42);
+		list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(Integer.toString(random.nextInt()));
+		}
+		sorted = new SortedCollection<>(list, Comparator.naturalOrder());
+	}
+
+	String next() {
+		return Integer.toString(random.nextInt());
+	}
+
+	@Benchmark
+	public List<String> listSorted() {
+		String added = next();
+		list.add(added);
+		list.remove(list.size() - 1);
+		return list.stream().sorted().limit(100).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> sortedCollection() {
+		String added = next();
+		sorted.add(added);
+		sorted.remove(added);
+		return sorted.stream().limit(100).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> listRange() {
+		return list.stream().filter(s -> s.compareTo("12") >= 0 && s.compareTo("13") < 0).sorted().collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> sortedCollectionRange() {
+		return sorted.range("12", "13").stream().collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public SortedCollection<String> bulkLoad() {
+		return new SortedCollection<>(list, Comparator.naturalOrder());
+	}
+
+}
@@ -0,0 +1,79 @@
+package tutorial_007.parallelStreams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * stream(), parallelStream() and AdaptiveStreams over the two workloads of the tutorials : an upper-casing pipeline
+ * (cheap per element, like the tiny lists of _04_ParallelStreamsAdvancedTest) and a sort (like ParallelStreamsTest).
+ * The adaptive variant should follow the best of both for every size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AdaptiveStreamsBenchmark {
+
+	@Param({"5", "1000", "1000000"})
+	int size;
+
+	List<String> uuids;
+	final AdaptiveStreams adaptive = new AdaptiveStreams();
+
+	@Setup
+	public void setup() {
+		uuids = new ArrayList<>(size);
+		UuidGenerator.splittable(42).fill(uuids, size);
+	}
+
+	@Benchmark
+	public List<String> upperCaseSequential() {
+		return uuids.stream().map(String::toUpperCase).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> upperCaseParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> uuids.parallelStream().map(String::toUpperCase).collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<String> upperCaseAdaptive(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> adaptive.execute("upperCase", uuids,
+				s -> s.map(String::toUpperCase).collect(Collectors.toList())));
+	}
+
+	@Benchmark
+	public Object[] sortSequential() {
+		return uuids.stream().sorted().toArray();
+	}
+
+	@Benchmark
+	public Object[] sortParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> uuids.parallelStream().sorted().toArray());
+	}
+
+	@Benchmark
+	public Object[] sortAdaptive(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> adaptive.execute("sort", uuids, s -> s.sorted().toArray()));
+	}
+
+}
@@ -0,0 +1,57 @@
+package tutorial_007.parallelStreams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * In-memory sorted() against ExternalSort with a memory budget of "budgetMegabytes". One million UUID Strings take
+ * about 120 MB once buffered, so the smaller budgets spill to disk while the largest one stays in memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ExternalSortBenchmark {
+
+	@Param({"1000000"})
+	int size;
+
+	@Param({"8", "32", "1024"})
+	int budgetMegabytes;
+
+	List<String> uuids;
+	ExternalSort externalSort;
+
+	@Setup
+	public void setup() {
+		uuids = new ArrayList<>(size);
+		UuidGenerator.splittable(42).fill(uuids, size);
+		externalSort = new ExternalSort(budgetMegabytes << 20);
+	}
+
+	@Benchmark
+	public long sorted() {
+		return uuids.stream().sorted().mapToInt(String::length).sum();
+	}
+
+	@Benchmark
+	public long externalSorted() {
+		return externalSort.sorted(uuids.stream()).mapToInt(String::length).sum();
+	}
+
+}
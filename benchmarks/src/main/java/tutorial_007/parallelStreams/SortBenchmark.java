@@ -0,0 +1,64 @@
+package tutorial_007.parallelStreams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * JMH version of the sequential vs parallel sort comparison of ParallelStreamsTest.
+ *
+ * The demo terminates with count(), but since Java 9 count() skips the whole pipeline when the source size is known,
+ * so the sorted elements are returned as an array here to keep the sort alive.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SortBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Data {
+		@Param({"1000", "100000", "1000000"})
+		int size;
+
+		List<String> uuids;
+
+		@Setup
+		public void setup() {
+			Random random = new Random(42);
+			uuids = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				uuids.add(new UUID(random.nextLong(), random.nextLong()).toString());
+			}
+		}
+	}
+
+	@Benchmark
+	public Object[] sequentialSort(Data data) {
+		return data.uuids.stream().sorted().toArray();
+	}
+
+	@Benchmark
+	public Object[] parallelSort(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.uuids.parallelStream().sorted().toArray());
+	}
+
+}
@@ -0,0 +1,65 @@
+package tutorial_007.parallelStreams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * parallelStream().sorted() against StringRadixSort over the random UUID Strings of ParallelStreamsTest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class StringRadixSortBenchmark {
+
+	@Param({"100000", "1000000"})
+	int size;
+
+	List<String> uuids;
+
+	@Setup
+	public void setup() {
+		uuids = new ArrayList<>(size);
+		UuidGenerator.splittable(42).fill(uuids, size);
+	}
+
+	@Benchmark
+	public Object[] sorted(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> uuids.parallelStream().sorted().toArray());
+	}
+
+	@Benchmark
+	public List<String> sortedToList(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> uuids.parallelStream().sorted().collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public Object[] radixSorted(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> StringRadixSort.sorted(uuids.parallelStream()).toArray());
+	}
+
+	@Benchmark
+	public List<String> radixSortedList(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> uuids.parallelStream().collect(StringRadixSort.toSortedList()));
+	}
+
+}
@@ -0,0 +1,111 @@
+package tutorial_007.parallelStreams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * String path of ParallelStreamsTest against UuidColumn.
+ *
+ * The build benchmarks measure the memory footprint of each representation : with the GC profiler, gc.alloc.rate.norm
+ * is the number of bytes allocated to hold the UUIDs. The sort benchmarks measure sort time only, the column being
+ * restored from an unsorted copy before each invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class UuidColumnBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Data {
+		@Param({"100000", "1000000"})
+		int size;
+
+		long[] mostSigBits;
+		long[] leastSigBits;
+		List<String> strings;
+
+		@Setup
+		public void setup() {
+			Random random = new Random(42);
+			mostSigBits = new long[size];
+			leastSigBits = new long[size];
+			strings = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				mostSigBits[i] = random.nextLong();
+				leastSigBits[i] = random.nextLong();
+				strings.add(new UUID(mostSigBits[i], leastSigBits[i]).toString());
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Unsorted {
+		UuidColumn column;
+
+		@Setup(Level.Invocation)
+		public void setup(Data data) {
+			if (column == null) {
+				column = new UuidColumn(data.size);
+				for (int i = 0; i < data.size; i++) {
+					column.add(data.mostSigBits[i], data.leastSigBits[i]);
+				}
+			} else {
+				System.arraycopy(data.mostSigBits, 0, column.mostSigBits, 0, data.size);
+				System.arraycopy(data.leastSigBits, 0, column.leastSigBits, 0, data.size);
+			}
+		}
+	}
+
+	@Benchmark
+	public List<String> buildStrings(Data data) {
+		List<String> list = new ArrayList<>(data.size);
+		for (int i = 0; i < data.size; i++) {
+			list.add(new UUID(data.mostSigBits[i], data.leastSigBits[i]).toString());
+		}
+		return list;
+	}
+
+	@Benchmark
+	public UuidColumn buildColumn(Data data) {
+		UuidColumn column = new UuidColumn(data.size);
+		for (int i = 0; i < data.size; i++) {
+			column.add(data.mostSigBits[i], data.leastSigBits[i]);
+		}
+		return column;
+	}
+
+	@Benchmark
+	public Object[] sortStrings(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.strings.parallelStream().sorted().toArray());
+	}
+
+	@Benchmark
+	public UuidColumn sortColumn(Unsorted unsorted, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> {
+			unsorted.column.sort();
+			return unsorted.column;
+		});
+	}
+
+}
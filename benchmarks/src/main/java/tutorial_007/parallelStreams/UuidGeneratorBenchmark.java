@@ -0,0 +1,76 @@
+package tutorial_007.parallelStreams;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * Fill loop of ParallelStreamsTest (UUID.randomUUID()) against both UuidGenerator modes. The "parallelism" sweep shows
+ * how each one scales with the core count : randomUUID() stays bound to its shared SecureRandom.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class UuidGeneratorBenchmark {
+
+	@Param({"100000", "1000000"})
+	int size;
+
+	final UuidGenerator splittable = UuidGenerator.splittable();
+	final UuidGenerator secure = UuidGenerator.secure();
+
+	@Benchmark
+	public String[] randomUUIDLoop() {
+		String[] uuids = new String[size];
+		for (int i = 0; i < size; i++) {
+			uuids[i] = UUID.randomUUID().toString();
+		}
+		return uuids;
+	}
+
+	@Benchmark
+	public String[] randomUUIDParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> IntStream.range(0, size)
+				.parallel()
+				.mapToObj(i -> UUID.randomUUID().toString())
+				.toArray(String[]::new));
+	}
+
+	@Benchmark
+	public String[] splittableStrings(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> splittable.generateStrings(size));
+	}
+
+	@Benchmark
+	public String[] secureStrings(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> secure.generateStrings(size));
+	}
+
+	@Benchmark
+	public UuidColumn splittableColumn(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> splittable.generateColumn(size));
+	}
+
+	@Benchmark
+	public UuidColumn secureColumn(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> secure.generateColumn(size));
+	}
+
+}
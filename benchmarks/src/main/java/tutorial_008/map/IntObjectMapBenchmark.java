@@ -0,0 +1,136 @@
+package tutorial_008.map;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * HashMap<Integer, String> versus IntObjectMap<String> at 10M entries.
+ *
+ * Footprint : the build* benchmarks fill a map presized for all the keys, so their gc.alloc.rate.norm reported by the
+ * GC profiler is the footprint of the map (values excluded, they are shared). Throughput : get, getOrDefault, merge and
+ * computeIfPresent over LOOKUPS random keys, half of them present.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class IntObjectMapBenchmark {
+
+	static final int LOOKUPS = 1 << 16;
+	static final String VALUE = "value";
+
+	@Param({"10000000"})
+	int size;
+
+	int[] keys;
+	int[] lookups;
+	HashMap<Integer, String> hashMap;
+	IntObjectMap<String> intObjectMap;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+		keys = new int[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = random.nextInt() << 1;	// even keys : odd ones are known absent
+		}
+		lookups = new int[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			lookups[i] = (i & 1) == 0 ? keys[random.nextInt(size)] : random.nextInt() | 1;
+		}
+		hashMap = buildHashMap();
+		intObjectMap = buildIntObjectMap();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public HashMap<Integer, String> buildHashMap() {
+		HashMap<Integer, String> map = new HashMap<>((int) (size / 0.75f) + 1);
+		for (int key : keys) {
+			map.put(key, VALUE);
+		}
+		return map;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public IntObjectMap<String> buildIntObjectMap() {
+		IntObjectMap<String> map = new IntObjectMap<>(size);
+		for (int key : keys) {
+			map.put(key, VALUE);
+		}
+		return map;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void getHashMap(Blackhole blackhole) {
+		for (int key : lookups) {
+			blackhole.consume(hashMap.getOrDefault(key, VALUE));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void getIntObjectMap(Blackhole blackhole) {
+		for (int key : lookups) {
+			blackhole.consume(intObjectMap.getOrDefault(key, VALUE));
+		}
+	}
+
+	/**
+	 * Present keys are merged with themselves, absent ones are inserted then removed again by computeIfPresent, so the
+	 * size stays the same across invocations.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void mergeHashMap(Blackhole blackhole) {
+		Map<Integer, String> map = hashMap;
+		for (int i = 0; i < LOOKUPS; i++) {
+			int key = lookups[i];
+			if ((i & 1) == 0) {
+				blackhole.consume(map.merge(key, VALUE, (v1, v2) -> v1));
+			} else {
+				map.merge(key, VALUE, (v1, v2) -> v1);
+				blackhole.consume(map.computeIfPresent(key, (k, v) -> null));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void mergeIntObjectMap(Blackhole blackhole) {
+		IntObjectMap<String> map = intObjectMap;
+		for (int i = 0; i < LOOKUPS; i++) {
+			int key = lookups[i];
+			if ((i & 1) == 0) {
+				blackhole.consume(map.merge(key, VALUE, (v1, v2) -> v1));
+			} else {
+				map.merge(key, VALUE, (v1, v2) -> v1);
+				blackhole.consume(map.computeIfPresent(key, (k, v) -> null));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+package tutorial_008.map;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * get, put and merge of random keys on a ConcurrentHashMap<String, String> versus a MappedMap holding the same entries,
+ * and the time to reopen a MappedMap of that size. The GC profiler shows what the heap no longer holds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MappedMapBenchmark {
+
+	@Param({"1000000"})
+	int size;
+
+	String[] keys;
+	ConcurrentHashMap<String, String> heapMap;
+	Path file;
+	MappedMap mappedMap;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		keys = new String[size];
+		heapMap = new ConcurrentHashMap<>(size);
+		file = Files.createTempFile("mapped-map-", ".map");
+		mappedMap = MappedMap.open(file);
+		for (int i = 0; i < size; i++) {
+			keys[i] = "key" + i;
+			heapMap.put(keys[i], "value" + i);
+			mappedMap.put(keys[i], "value" + i);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		mappedMap.close();
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".index"));
+	}
+
+	String randomKey() {
+		return keys[ThreadLocalRandom.current().nextInt(size)];
+	}
+
+	@Benchmark
+	public String getHeap() {
+		return heapMap.get(randomKey());
+	}
+
+	@Benchmark
+	public String getMapped() {
+		return mappedMap.get(randomKey());
+	}
+
+	@Benchmark
+	public String putHeap() {
+		String key = randomKey();
+		return heapMap.put(key, key);
+	}
+
+	/**
+	 * Every put appends a record : the background compaction runs during the measurement, as it would in production.
+	 */
+	@Benchmark
+	public String putMapped() {
+		String key = randomKey();
+		return mappedMap.put(key, key);
+	}
+
+	@Benchmark
+	public String mergeHeap() {
+		return heapMap.merge(randomKey(), "x", (v1, v2) -> v1.length() > 16 ? v2 : v1 + v2);
+	}
+
+	@Benchmark
+	public String mergeMapped() {
+		return mappedMap.merge(randomKey(), "x", (v1, v2) -> v1.length() > 16 ? v2 : v1 + v2);
+	}
+
+	/**
+	 * A map of the same size in its own files, never written by the other benchmarks.
+	 */
+	@State(Scope.Benchmark)
+	public static class Stored {
+
+		Path file;
+
+		@Setup(Level.Trial)
+		public void setup(MappedMapBenchmark benchmark) throws IOException {
+			file = Files.createTempFile("mapped-map-stored-", ".map");
+			try (MappedMap map = MappedMap.open(file)) {
+				for (int i = 0; i < benchmark.size; i++) {
+					map.put(benchmark.keys[i], "value" + i);
+				}
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".index"));
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public String reopen(Stored stored) throws IOException {
+		try (MappedMap reopened = MappedMap.open(stored.file)) {
+			return reopened.get(randomKey());
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package tutorial_008.map;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * "appends" merges into the same key of a HashMap, then one read of the value : String::concat copies the value at
+ * every merge, Rope::concat once at the read. The ReadEach cases read the value after every merge, as a map that is
+ * both appended to and read does : a rope is then copied at every read, but must only keep the last copy alive.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RopeBenchmark {
+
+	static final String FRAGMENT = "fragment";
+
+	@Param({"100", "10000"})
+	int appends;
+
+	@Benchmark
+	public String stringConcat() {
+		Map<String, String> map = new HashMap<>();
+		for (int i = 0; i < appends; i++) {
+			map.merge("key", FRAGMENT, String::concat);
+		}
+		return map.get("key");
+	}
+
+	@Benchmark
+	public String ropeConcat() {
+		Map<String, Rope> map = new HashMap<>();
+		for (int i = 0; i < appends; i++) {
+			map.merge("key", Rope.of(FRAGMENT), Rope::concat);
+		}
+		return map.get("key").toString();
+	}
+
+	@Benchmark
+	public int stringConcatReadEach() {
+		Map<String, String> map = new HashMap<>();
+		int length = 0;
+		for (int i = 0; i < appends; i++) {
+			map.merge("key", FRAGMENT, String::concat);
+			length += map.get("key").length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int ropeConcatReadEach() {
+		Map<String, Rope> map = new HashMap<>();
+		int length = 0;
+		for (int i = 0; i < appends; i++) {
+			map.merge("key", Rope.of(FRAGMENT), Rope::concat);
+			length += map.get("key").toString().length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public String stringBuilderCompute() {
+		Map<String, StringBuilder> map = new HashMap<>();
+		for (int i = 0; i < appends; i++) {
+			map.computeIfAbsent("key", k -> new StringBuilder()).append(FRAGMENT);
+		}
+		return map.get("key").toString();
+	}
+
+}
@@ -0,0 +1,76 @@
+package tutorial_009.dateApi;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One timestamp per operation, taken by every JMH thread from the same clock : the system clock, and a CoarseClock
+ * ticking every millisecond.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CoarseClockContentionBenchmark {
+
+	Clock systemClock;
+	CoarseClock coarseClock;
+
+	@Setup
+	public void setup() {
+		systemClock = Clock.systemUTC();
+		coarseClock = CoarseClock.start(Duration.ofMillis(1));
+	}
+
+	@TearDown
+	public void tearDown() {
+		coarseClock.close();
+	}
+
+	@Benchmark
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	@Benchmark
+	public long nanoTime() {
+		return System.nanoTime();
+	}
+
+	@Benchmark
+	public long systemClockMillis() {
+		return systemClock.millis();
+	}
+
+	@Benchmark
+	public Instant systemClockInstant() {
+		return systemClock.instant();
+	}
+
+	@Benchmark
+	public long coarseClockMillis() {
+		return coarseClock.millis();
+	}
+
+	@Benchmark
+	public Instant coarseClockInstant() {
+		return coarseClock.instant();
+	}
+
+}
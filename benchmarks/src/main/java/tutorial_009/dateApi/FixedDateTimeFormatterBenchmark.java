@@ -0,0 +1,103 @@
+package tutorial_009.dateApi;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One parse or one format of a timestamp out of 1024 different ones, with DateTimeFormatter and with
+ * FixedDateTimeFormatter. Run with -prof gc to compare the allocations as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FixedDateTimeFormatterBenchmark {
+
+	static final int TIMESTAMPS = 1024;
+
+	@Param({"yyyy-MM-dd HH:mm", "yyyy-MM-dd'T'HH:mm:ss.SSS"})
+	String pattern;
+
+	DateTimeFormatter dateTimeFormatter;
+	FixedDateTimeFormatter fixedFormatter;
+	LocalDateTime[] dateTimes = new LocalDateTime[TIMESTAMPS];
+	String[] texts = new String[TIMESTAMPS];
+	byte[][] lines = new byte[TIMESTAMPS][];
+	char[] chars;
+	byte[] bytes;
+	int next;
+
+	@Setup
+	public void setup() {
+		dateTimeFormatter = DateTimeFormatter.ofPattern(pattern);
+		fixedFormatter = FixedDateTimeFormatter.ofPattern(pattern);
+		LocalDateTime start = LocalDateTime.of(2014, 11, 3, 7, 13);
+		for (int i = 0; i < TIMESTAMPS; i++) {
+			dateTimes[i] = start.plusSeconds(i * 7919L).plusNanos(i * 1000000L);
+			texts[i] = dateTimeFormatter.format(dateTimes[i]);
+			lines[i] = (texts[i] + " INFO event " + i).getBytes(StandardCharsets.US_ASCII);
+		}
+		chars = new char[fixedFormatter.length()];
+		bytes = new byte[fixedFormatter.length()];
+	}
+
+	int next() {
+		return next = (next + 1) & (TIMESTAMPS - 1);
+	}
+
+	@Benchmark
+	public LocalDateTime parseDateTimeFormatter() {
+		return LocalDateTime.parse(texts[next()], dateTimeFormatter);
+	}
+
+	@Benchmark
+	public LocalDateTime parseFixed() {
+		return fixedFormatter.parse(texts[next()]);
+	}
+
+	@Benchmark
+	public long parseEpochMilliDateTimeFormatter() {
+		byte[] line = lines[next()];
+		String text = new String(line, 0, fixedFormatter.length(), StandardCharsets.US_ASCII);
+		return LocalDateTime.parse(text, dateTimeFormatter).toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	@Benchmark
+	public long parseEpochMilliFixed() {
+		return fixedFormatter.parseEpochMilli(lines[next()], 0, ZoneOffset.UTC);
+	}
+
+	@Benchmark
+	public String formatDateTimeFormatter() {
+		return dateTimeFormatter.format(dateTimes[next()]);
+	}
+
+	@Benchmark
+	public String formatFixed() {
+		return fixedFormatter.format(dateTimes[next()]);
+	}
+
+	@Benchmark
+	public byte[] formatToBytesFixed() {
+		fixedFormatter.formatTo(dateTimes[next()], bytes, 0);
+		return bytes;
+	}
+
+}
@@ -0,0 +1,78 @@
+package tutorial_011.advancedStreamsTests._02.processingOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * Overhead of StreamProfiler on the filter / map pipeline of ProcessingOrderTest : unprofiled, always profiled and
+ * sampled (1% of the executions).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class StreamProfilerBenchmark {
+
+	@Param({"1000", "100000"})
+	int size;
+
+	List<String> strings;
+	final StreamProfiler always = new StreamProfiler(1.0, report -> {});
+	final StreamProfiler sampled = new StreamProfiler(0.01, report -> {});
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		strings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			strings.add((char) ('a' + random.nextInt(26)) + Integer.toString(random.nextInt(1000)));
+		}
+	}
+
+	@Benchmark
+	public List<String> plain(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> strings.parallelStream()
+				.filter(s -> s.startsWith("a"))
+				.map(String::toUpperCase)
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<String> profiled(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> run(always));
+	}
+
+	@Benchmark
+	public List<String> sampled(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> run(sampled));
+	}
+
+	List<String> run(StreamProfiler profiler) {
+		StreamProfiler.Profile profile = profiler.start("filterMap");
+		return profile.run(() -> strings.parallelStream()
+				.filter(profile.filter("startsWithA", s -> s.startsWith("a")))
+				.map(profile.map("toUpperCase", String::toUpperCase))
+				.collect(Collectors.toList()));
+	}
+
+}
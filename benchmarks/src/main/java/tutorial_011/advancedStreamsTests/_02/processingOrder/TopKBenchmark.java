@@ -0,0 +1,75 @@
+package tutorial_011.advancedStreamsTests._02.processingOrder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * sorted(reverse comparator).limit(k) versus the bounded heap of TopK, sequential and parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class TopKBenchmark {
+
+	static final Comparator<String> REVERSED = (a, b) -> b.compareTo(a);
+
+	@Param({"100000", "1000000"})
+	int size;
+
+	@Param({"10", "1000"})
+	int k;
+
+	List<String> strings;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		strings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			strings.add(Integer.toString(random.nextInt()));
+		}
+	}
+
+	@Benchmark
+	public List<String> sortedLimit() {
+		return strings.stream().sorted(REVERSED).limit(k).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<String> topK() {
+		return strings.stream().collect(TopK.smallest(k, REVERSED));
+	}
+
+	@Benchmark
+	public List<String> sortedLimitParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> strings.parallelStream().sorted(REVERSED).limit(k).collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<String> topKParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> strings.parallelStream().collect(TopK.smallest(k, REVERSED)));
+	}
+
+}
@@ -0,0 +1,88 @@
+package tutorial_011.advancedStreamsTests._03.reusingStreams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Several terminal operations over the same expensive filter, as in ReusingStreamsTest : a Supplier<Stream> running
+ * the filter again for every terminal operation versus a ReplayableStream running it once. The ReplayableStream is
+ * created in the benchmark method, so its first, filtering, consumption is measured too.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ReplayableStreamBenchmark {
+
+	static final Pattern PATTERN = Pattern.compile("a\\d*[13579]");
+
+	@Param({"1000", "100000"})
+	int size;
+
+	@Param({"1", "4"})
+	int terminalOperations;
+
+	List<String> strings;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		strings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			strings.add((char) ('a' + random.nextInt(26)) + Integer.toString(random.nextInt(1000)));
+		}
+	}
+
+	@Benchmark
+	public void supplier(Blackhole blackhole) {
+		Supplier<Stream<String>> supplier = () -> strings.stream().filter(s -> PATTERN.matcher(s).matches());
+		consume(supplier, blackhole);
+	}
+
+	@Benchmark
+	public void replayable(Blackhole blackhole) {
+		ReplayableStream<String> replayable = ReplayableStream.of(() -> strings.stream()
+				.filter(s -> PATTERN.matcher(s).matches()));
+		consume(replayable::stream, blackhole);
+	}
+
+	void consume(Supplier<Stream<String>> streams, Blackhole blackhole) {
+		for (int i = 0; i < terminalOperations; i++) {
+			switch (i % 4) {
+				case 0:
+					blackhole.consume(streams.get().count());
+					break;
+				case 1:
+					blackhole.consume(streams.get().anyMatch(s -> s.endsWith("99")));
+					break;
+				case 2:
+					blackhole.consume(streams.get().mapToInt(String::length).sum());
+					break;
+				default:
+					blackhole.consume(streams.get().toArray());
+					break;
+			}
+		}
+	}
+
+}
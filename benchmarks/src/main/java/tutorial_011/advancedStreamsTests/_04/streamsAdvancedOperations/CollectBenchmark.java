@@ -0,0 +1,220 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * JMH version of the collectors shown in _01_CollectTest, each one measured sequentially and on a parallel stream.
+ *
+ * Sizes stop at 100_000 because the toMap() merge function concatenates names on every duplicated age, which is
+ * quadratic in the number of persons per age.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CollectBenchmark {
+
+	static final String[] NAMES = {"Max", "Peter", "Pamela", "David", "Anna", "Paul", "Julia", "Tom"};
+
+	static final Collector<Person, StringJoiner, String> PERSON_NAME_COLLECTOR = Collector.of(
+			() -> new StringJoiner(" | "),
+			(j, p) -> j.add(p.name.toUpperCase()),
+			(j1, j2) -> j1.merge(j2),
+			StringJoiner::toString);
+
+	@State(Scope.Benchmark)
+	public static class Data {
+		@Param({"1000", "10000", "100000"})
+		int size;
+
+		List<Person> persons;
+
+		@Setup
+		public void setup() {
+			Random random = new Random(42);
+			persons = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				persons.add(new Person(NAMES[random.nextInt(NAMES.length)], random.nextInt(100)));
+			}
+		}
+	}
+
+	@Benchmark
+	public List<Person> toList(Data data) {
+		return data.persons.stream().filter(p -> p.name.startsWith("P")).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Person> toListParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream()
+				.filter(p -> p.name.startsWith("P"))
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public Map<Integer, List<Person>> groupingBy(Data data) {
+		return data.persons.stream().collect(Collectors.groupingBy(p -> p.age));
+	}
+
+	@Benchmark
+	public Map<Integer, List<Person>> groupingByParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream().collect(Collectors.groupingBy(p -> p.age)));
+	}
+
+	@Benchmark
+	public IntGroupingCollectors.IntGroups<List<Person>> groupingByInt(Data data) {
+		return data.persons.stream().collect(IntGroupingCollectors.groupingBy(p -> p.age));
+	}
+
+	@Benchmark
+	public IntGroupingCollectors.IntGroups<List<Person>> groupingByIntParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream().collect(IntGroupingCollectors.groupingBy(p -> p.age)));
+	}
+
+	@Benchmark
+	public Map<Integer, Long> groupingByCounting(Data data) {
+		return data.persons.stream().collect(Collectors.groupingBy(p -> p.age, Collectors.counting()));
+	}
+
+	@Benchmark
+	public IntGroupingCollectors.IntLongGroups groupingByIntCounting(Data data) {
+		return data.persons.stream().collect(IntGroupingCollectors.groupingBy(p -> p.age, IntGroupingCollectors.counting()));
+	}
+
+	@Benchmark
+	public Map<Integer, Double> groupingByAveraging(Data data) {
+		return data.persons.stream().collect(Collectors.groupingBy(p -> p.age, Collectors.averagingInt(p -> p.name.length())));
+	}
+
+	@Benchmark
+	public IntGroupingCollectors.IntDoubleGroups groupingByIntAveraging(Data data) {
+		return data.persons.stream()
+				.collect(IntGroupingCollectors.groupingBy(p -> p.age, IntGroupingCollectors.averagingInt(p -> p.name.length())));
+	}
+
+	@Benchmark
+	public Double averagingInt(Data data) {
+		return data.persons.stream().collect(Collectors.averagingInt(p -> p.age));
+	}
+
+	@Benchmark
+	public Double averagingIntParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream().collect(Collectors.averagingInt(p -> p.age)));
+	}
+
+	@Benchmark
+	public IntSummaryStatistics summarizingInt(Data data) {
+		return data.persons.stream().collect(Collectors.summarizingInt(p -> p.age));
+	}
+
+	@Benchmark
+	public IntSummaryStatistics summarizingIntParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream().collect(Collectors.summarizingInt(p -> p.age)));
+	}
+
+	@Benchmark
+	public String joining(Data data) {
+		return data.persons.stream()
+				.filter(p -> p.age >= 18)
+				.map(p -> p.name)
+				.collect(Collectors.joining(" and ", "In Germany ", " are of legal age."));
+	}
+
+	@Benchmark
+	public String joiningParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream()
+				.filter(p -> p.age >= 18)
+				.map(p -> p.name)
+				.collect(Collectors.joining(" and ", "In Germany ", " are of legal age.")));
+	}
+
+	@Benchmark
+	public String joiningCollectors(Data data) {
+		return data.persons.stream()
+				.filter(p -> p.age >= 18)
+				.map(p -> p.name)
+				.collect(JoiningCollectors.joining(" and ", "In Germany ", " are of legal age."));
+	}
+
+	@Benchmark
+	public String joiningCollectorsParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream()
+				.filter(p -> p.age >= 18)
+				.map(p -> p.name)
+				.collect(JoiningCollectors.joining(" and ", "In Germany ", " are of legal age.")));
+	}
+
+	@Benchmark
+	public Map<Integer, String> toMap(Data data) {
+		return data.persons.stream().collect(Collectors.toMap(p -> p.age, p -> p.name, (name1, name2) -> name1 + ";" + name2));
+	}
+
+	@Benchmark
+	public Map<Integer, String> toMapParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream()
+				.collect(Collectors.toMap(p -> p.age, p -> p.name, (name1, name2) -> name1 + ";" + name2)));
+	}
+
+	@Benchmark
+	public Map<Integer, String> toMultimap(Data data) {
+		return data.persons.stream().collect(MultimapCollectors.toMultimap(p -> p.age, p -> p.name, names -> String.join(";", names)));
+	}
+
+	@Benchmark
+	public Map<Integer, String> toMultimapParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream()
+				.collect(MultimapCollectors.toMultimap(p -> p.age, p -> p.name, names -> String.join(";", names))));
+	}
+
+	@Benchmark
+	public Map<Integer, String> toConcurrentMultimapParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream()
+				.collect(MultimapCollectors.toConcurrentMultimap(p -> p.age, p -> p.name, names -> String.join(";", names))));
+	}
+
+	@Benchmark
+	public String personNameCollector(Data data) {
+		return data.persons.stream().collect(PERSON_NAME_COLLECTOR);
+	}
+
+	@Benchmark
+	public String personNameCollectorParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream().collect(PERSON_NAME_COLLECTOR));
+	}
+
+	@Benchmark
+	public String personNameJoining(Data data) {
+		return data.persons.stream().collect(JoiningCollectors.joining(p -> p.name, " | ", "", "", Character::toUpperCase));
+	}
+
+	@Benchmark
+	public String personNameJoiningParallel(Data data, Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> data.persons.parallelStream()
+				.collect(JoiningCollectors.joining(p -> p.name, " | ", "", "", Character::toUpperCase)));
+	}
+
+}
@@ -0,0 +1,102 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * flatMap(f -> f.bars.stream()) of _02_FlatMapTest versus PushFlatMap on a Foo / Bar graph, for a full traversal
+ * (count of the bars matching a filter) and a short-circuiting one (findFirst of a bar of the first foo). The bytes
+ * allocated per operation are reported by the GC profiler of BenchmarkRunner.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FlatMapBenchmark {
+
+	@Param({"10000"})
+	int foos;
+
+	@Param({"1", "10", "1000"})
+	int barsPerFoo;
+
+	List<Foo> graph;
+
+	@Setup
+	public void setup() {
+		graph = new ArrayList<>(foos);
+		for (int i = 0; i < foos; i++) {
+			Foo foo = new Foo("Foo" + i);
+			for (int j = 0; j < barsPerFoo; j++) {
+				foo.bars.add(new Bar("Bar" + j + " <- " + foo.name));
+			}
+			graph.add(foo);
+		}
+	}
+
+	@Benchmark
+	public long flatMapCount() {
+		return graph.stream().flatMap(f -> f.bars.stream()).filter(b -> b.name.startsWith("Bar1")).count();
+	}
+
+	@Benchmark
+	public long pushFlatMapCount() {
+		return PushFlatMap.flatMapIterable(graph.stream(), f -> f.bars).filter(b -> b.name.startsWith("Bar1")).count();
+	}
+
+	@Benchmark
+	public long flatMapCountParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> graph.parallelStream()
+				.flatMap(f -> f.bars.stream())
+				.filter(b -> b.name.startsWith("Bar1"))
+				.count());
+	}
+
+	@Benchmark
+	public long pushFlatMapCountParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> PushFlatMap.flatMapIterable(graph.parallelStream(), f -> f.bars)
+				.filter(b -> b.name.startsWith("Bar1"))
+				.count());
+	}
+
+	@Benchmark
+	public List<Bar> flatMapToList() {
+		return graph.stream().flatMap(f -> f.bars.stream()).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Bar> pushFlatMapToList() {
+		return PushFlatMap.flatMapIterable(graph.stream(), f -> f.bars).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public Optional<Bar> flatMapFindFirst() {
+		return graph.stream().flatMap(f -> f.bars.stream()).findFirst();
+	}
+
+	@Benchmark
+	public Optional<Bar> pushFlatMapFindFirst() {
+		return PushFlatMap.flatMapIterable(graph.stream(), f -> f.bars).findFirst();
+	}
+
+}
@@ -0,0 +1,89 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * The aggregates of _01_CollectTest over a List<Person> versus the same persons stored in a PersonTable. The table
+ * methods run on the pool of the Parallelism state, like the parallel streams over the list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PersonTableBenchmark {
+
+	@Param({"100000", "10000000"})
+	int size;
+
+	List<Person> persons;
+	PersonTable table;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		persons = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			persons.add(new Person(CollectBenchmark.NAMES[random.nextInt(CollectBenchmark.NAMES.length)], random.nextInt(100)));
+		}
+		table = PersonTable.of(persons);
+	}
+
+	@Benchmark
+	public IntSummaryStatistics summarizingInt() {
+		return persons.stream().collect(Collectors.summarizingInt(p -> p.age));
+	}
+
+	@Benchmark
+	public IntSummaryStatistics summarizingIntParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> persons.parallelStream().collect(Collectors.summarizingInt(p -> p.age)));
+	}
+
+	@Benchmark
+	public IntSummaryStatistics tableSummarizeAges(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(table::summarizeAges);
+	}
+
+	@Benchmark
+	public Map<Integer, Long> countingByAgeParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> persons.parallelStream().collect(Collectors.groupingBy(p -> p.age, Collectors.counting())));
+	}
+
+	@Benchmark
+	public IntGroupingCollectors.IntLongGroups tableCountByAge(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(table::countByAge);
+	}
+
+	@Benchmark
+	public List<Person> filterParallel(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> persons.parallelStream().filter(p -> p.age >= 18).collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public PersonTable tableFilterByAge(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> table.filterByAge(age -> age >= 18));
+	}
+
+}
@@ -0,0 +1,68 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Parallelism;
+
+/**
+ * The age sum of _03_ReduceTest on parallel streams : reduce(0, accumulator, combiner) boxing an Integer per step
+ * versus Reductions.reduceInt() accumulating into one primitive accumulator per leaf. The GC profiler of
+ * BenchmarkRunner reports the allocation of each.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ReduceBenchmark {
+
+	@Param({"10000", "1000000"})
+	int size;
+
+	List<Person> persons;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		persons = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			persons.add(new Person(CollectBenchmark.NAMES[random.nextInt(CollectBenchmark.NAMES.length)], random.nextInt(1000)));
+		}
+	}
+
+	@Benchmark
+	public Integer boxedReduce(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> persons.parallelStream().reduce(0, (sum, p) -> sum += p.age, (sum1, sum2) -> sum1 + sum2));
+	}
+
+	@Benchmark
+	public int reduceInt(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> Reductions.reduceInt(persons.parallelStream(), 0, (sum, p) -> sum + p.age, Integer::sum));
+	}
+
+	@Benchmark
+	public Person mutableReduce(Parallelism parallelism) throws InterruptedException, ExecutionException {
+		return parallelism.invoke(() -> Reductions.reduce(persons.parallelStream(),
+				() -> new Person("", 0),
+				(acc, p) -> acc.age += p.age,
+				(acc1, acc2) -> acc1.age += acc2.age));
+	}
+
+}
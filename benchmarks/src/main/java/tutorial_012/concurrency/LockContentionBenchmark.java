@@ -0,0 +1,190 @@
+package tutorial_012.concurrency;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH version of the lock variants of _05_LocksTest : readers and a writer run at the same time on the same map guarded
+ * by one lock, READERS reader threads per writer thread in each group, so that the read locks contend with the writes
+ * and the optimistic reads of StampedLock fail their validation as they would in _05_LocksTest. "keys" is the number of
+ * map entries touched per operation. The thread count is swept by BenchmarkRunner, JMH rounding it up to whole groups.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LockContentionBenchmark {
+
+	static final int READERS = 3;
+
+	@Param({"1", "100"})
+	int keys;
+
+	final Object monitor = new Object();
+	final ReentrantLock reentrantLock = new ReentrantLock();
+	final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+	final StampedLock stampedLock = new StampedLock();
+
+	final Map<Integer, Integer> map = new HashMap<>();
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < keys; i++) {
+			map.put(i, 0);
+		}
+	}
+
+	@Benchmark
+	@Group("synchronized")
+	@GroupThreads(READERS)
+	public int synchronizedRead() {
+		synchronized (monitor) {
+			return read();
+		}
+	}
+
+	@Benchmark
+	@Group("synchronized")
+	@GroupThreads(1)
+	public void synchronizedWrite() {
+		synchronized (monitor) {
+			write();
+		}
+	}
+
+	@Benchmark
+	@Group("reentrantLock")
+	@GroupThreads(READERS)
+	public int reentrantLockRead() {
+		reentrantLock.lock();
+		try {
+			return read();
+		} finally {
+			reentrantLock.unlock();
+		}
+	}
+
+	@Benchmark
+	@Group("reentrantLock")
+	@GroupThreads(1)
+	public void reentrantLockWrite() {
+		reentrantLock.lock();
+		try {
+			write();
+		} finally {
+			reentrantLock.unlock();
+		}
+	}
+
+	@Benchmark
+	@Group("readWriteLock")
+	@GroupThreads(READERS)
+	public int readWriteLockRead() {
+		readWriteLock.readLock().lock();
+		try {
+			return read();
+		} finally {
+			readWriteLock.readLock().unlock();
+		}
+	}
+
+	@Benchmark
+	@Group("readWriteLock")
+	@GroupThreads(1)
+	public void readWriteLockWrite() {
+		readWriteLock.writeLock().lock();
+		try {
+			write();
+		} finally {
+			readWriteLock.writeLock().unlock();
+		}
+	}
+
+	@Benchmark
+	@Group("stampedLock")
+	@GroupThreads(READERS)
+	public int stampedLockRead() {
+		long stamp = stampedLock.readLock();
+		try {
+			return read();
+		} finally {
+			stampedLock.unlockRead(stamp);
+		}
+	}
+
+	@Benchmark
+	@Group("stampedLock")
+	@GroupThreads(1)
+	public void stampedLockWrite() {
+		stampedWrite();
+	}
+
+	@Benchmark
+	@Group("stampedLockOptimistic")
+	@GroupThreads(READERS)
+	public int stampedLockOptimisticRead() {
+		long stamp = stampedLock.tryOptimisticRead();
+		int sum = read();
+		if (!stampedLock.validate(stamp)) {
+			stamp = stampedLock.readLock();
+			try {
+				sum = read();
+			} finally {
+				stampedLock.unlockRead(stamp);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@Group("stampedLockOptimistic")
+	@GroupThreads(1)
+	public void stampedLockOptimisticWrite() {
+		stampedWrite();
+	}
+
+	void stampedWrite() {
+		long stamp = stampedLock.writeLock();
+		try {
+			write();
+		} finally {
+			stampedLock.unlockWrite(stamp);
+		}
+	}
+
+	void write() {
+		for (int i = 0; i < keys; i++) {
+			map.merge(i, 1, Integer::sum);
+		}
+	}
+
+	int read() {
+		int sum = 0;
+		for (int i = 0; i < keys; i++) {
+			sum += map.get(i);
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,85 @@
+package tutorial_013.atomicity;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH version of the shared counters of _04_SynchronizedTest, _01_AtomicIntegerTest and _02_LongAdderTest.
+ *
+ * Every benchmark thread increments the same counter "increments" times per operation. The thread count is
+ * swept by BenchmarkRunner. The unsynchronized counter is only kept as the lost-writes baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CounterContentionBenchmark {
+
+	@Param({"1", "100"})
+	int increments;
+
+	int count;
+	int synchronizedCount;
+	final AtomicInteger atomicInt = new AtomicInteger();
+	final LongAdder adder = new LongAdder();
+
+	@Benchmark
+	public int unsynchronized() {
+		for (int i = 0; i < increments; i++) {
+			count = count + 1;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int synchronizedMethod() {
+		int current = 0;
+		for (int i = 0; i < increments; i++) {
+			current = synchronizedIncrement();
+		}
+		return current;
+	}
+
+	@Benchmark
+	public int atomicInteger() {
+		int current = 0;
+		for (int i = 0; i < increments; i++) {
+			current = atomicInt.incrementAndGet();
+		}
+		return current;
+	}
+
+	@Benchmark
+	public void longAdder() {
+		for (int i = 0; i < increments; i++) {
+			adder.increment();
+		}
+	}
+
+	@Benchmark
+	public long longAdderThenSum() {
+		for (int i = 0; i < increments; i++) {
+			adder.increment();
+		}
+		return adder.sum();
+	}
+
+	synchronized int synchronizedIncrement() {
+		return ++synchronizedCount;
+	}
+
+}
@@ -0,0 +1,59 @@
+package tutorial_013.atomicity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tutorial_008.map.Rope;
+
+/**
+ * The merge() of _04_ConcurrentMapTest from every benchmark thread into a few shared keys : String::concat copies the
+ * value while holding the lock of the bin, Rope::concat only links a node. The maps are emptied at every iteration so
+ * that the values keep the same length range. The thread count is swept by BenchmarkRunner.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RopeMergeContentionBenchmark {
+
+	static final String FRAGMENT = "fragment";
+
+	@Param({"1", "16"})
+	int keys;
+
+	final ConcurrentHashMap<Integer, String> strings = new ConcurrentHashMap<>();
+	final ConcurrentHashMap<Integer, Rope> ropes = new ConcurrentHashMap<>();
+
+	@Setup(Level.Iteration)
+	public void clear() {
+		strings.clear();
+		ropes.clear();
+	}
+
+	@Benchmark
+	public String stringConcat() {
+		return strings.merge(ThreadLocalRandom.current().nextInt(keys), FRAGMENT, String::concat);
+	}
+
+	@Benchmark
+	public Rope ropeConcat() {
+		return Rope.appendTo(ropes, ThreadLocalRandom.current().nextInt(keys), FRAGMENT);
+	}
+
+}
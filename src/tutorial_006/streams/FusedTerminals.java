@@ -0,0 +1,473 @@
+package tutorial_006.streams;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Several terminal operations evaluated in a single pass over their source, where StreamsTest creates one stream, i.e.
+ * one scan of stringCollection, per anyMatch, allMatch, noneMatch, count and reduce.
+ *
+ * Each operation is registered first and returns a typed Terminal, which gives its value in the Results :
+ * "
+ 	FusedTerminals<String> terminals = FusedTerminals.of(stringCollection);
+ 	FusedTerminals.Terminal<Boolean> anyStartsWithA = terminals.anyMatch(s -> s.startsWith("a"));
+ 	FusedTerminals.Terminal<Long> count = terminals.count();
+ 	FusedTerminals.Terminal<Optional<String>> reduced = terminals.reduce((s1, s2) -> s1 + "#" + s2);
+
+ 	FusedTerminals.Results results = terminals.evaluate();	// or evaluateParallel()
+ 	boolean startsWithA = results.get(anyStartsWithA);
+ * "
+ * A short-circuiting operation (anyMatch, allMatch, noneMatch) stops being evaluated as soon as it is decided. When all
+ * the operations are short-circuiting and decided, the pass stops. In parallel every fork/join leaf has its own
+ * accumulators, combined in encounter order, and a decision taken by one leaf stops that operation in the other ones.
+ */
+public class FusedTerminals<T> {
+
+	final Supplier<? extends Spliterator<T>> source;
+	final List<Operation<T, ?, ?>> operations = new ArrayList<>();
+
+	FusedTerminals(Supplier<? extends Spliterator<T>> source) {
+		this.source = source;
+	}
+
+	public static <T> FusedTerminals<T> of(Collection<T> source) {
+		return new FusedTerminals<>(source::spliterator);
+	}
+
+	/**
+	 * @param source creates the stream to evaluate, once per evaluation.
+	 */
+	public static <T> FusedTerminals<T> from(Supplier<? extends Stream<T>> source) {
+		return new FusedTerminals<>(() -> source.get().spliterator());
+	}
+
+	public Terminal<Boolean> anyMatch(Predicate<? super T> predicate) {
+		return add(new MatchOperation<>("anyMatch", predicate, true, true));
+	}
+
+	public Terminal<Boolean> allMatch(Predicate<? super T> predicate) {
+		return add(new MatchOperation<>("allMatch", predicate, false, false));
+	}
+
+	public Terminal<Boolean> noneMatch(Predicate<? super T> predicate) {
+		return add(new MatchOperation<>("noneMatch", predicate, true, false));
+	}
+
+	public Terminal<Long> count() {
+		return add(new Operation<T, long[], Long>("count", false) {
+			@Override
+			long[] supply() {
+				return new long[1];
+			}
+
+			@Override
+			boolean accumulate(long[] count, T element) {
+				count[0]++;
+				return true;
+			}
+
+			@Override
+			long[] combine(long[] count1, long[] count2) {
+				count1[0] += count2[0];
+				return count1;
+			}
+
+			@Override
+			Long finish(long[] count) {
+				return count[0];
+			}
+		});
+	}
+
+	public Terminal<Optional<T>> reduce(BinaryOperator<T> accumulator) {
+		return add(new Operation<T, Object[], Optional<T>>("reduce", false) {
+			final Object none = new Object();
+
+			@Override
+			Object[] supply() {
+				return new Object[] {none};
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			boolean accumulate(Object[] result, T element) {
+				result[0] = result[0] == none ? element : accumulator.apply((T) result[0], element);
+				return true;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			Object[] combine(Object[] result1, Object[] result2) {
+				if (result1[0] == none) {
+					return result2;
+				}
+				if (result2[0] != none) {
+					result1[0] = accumulator.apply((T) result1[0], (T) result2[0]);
+				}
+				return result1;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			Optional<T> finish(Object[] result) {
+				return result[0] == none ? Optional.empty() : Optional.of((T) result[0]);
+			}
+		});
+	}
+
+	public <R> Terminal<R> collect(Collector<? super T, ?, R> collector) {
+		return add(new CollectOperation<>(collector));
+	}
+
+	<R> Terminal<R> add(Operation<T, ?, R> operation) {
+		operation.terminal = new Terminal<>(this, operations.size(), operation.name);
+		operations.add(operation);
+		return operation.terminal;
+	}
+
+	/**
+	 * Evaluates every registered operation in one sequential pass.
+	 */
+	public Results evaluate() {
+		Evaluation<T> evaluation = new Evaluation<>(operations, false);
+		Leaf<T> leaf = new Leaf<>(evaluation);
+		leaf.consume(source.get());
+		return new Results(this, leaf.finish());
+	}
+
+	/**
+	 * Evaluates every registered operation in one parallel pass, on the current ForkJoinPool when called from one of its
+	 * tasks, and on the common pool otherwise.
+	 */
+	public Results evaluateParallel() {
+		ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+		Spliterator<T> spliterator = source.get();
+		long targetSize = Math.max(1, spliterator.estimateSize() / (pool.getParallelism() * 4L));
+		Evaluation<T> evaluation = new Evaluation<>(operations, true);
+		Leaf<T> leaf = pool.invoke(new EvaluationTask<>(evaluation, spliterator, targetSize));
+		return new Results(this, leaf.finish());
+	}
+
+	/**
+	 * Typed handle of a registered operation, to read its value from the Results.
+	 */
+	public static final class Terminal<R> {
+
+		final FusedTerminals<?> owner;
+		final int index;
+		final String name;
+
+		Terminal(FusedTerminals<?> owner, int index, String name) {
+			this.owner = owner;
+			this.index = index;
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name + "#" + index;
+		}
+	}
+
+	public static final class Results {
+
+		final FusedTerminals<?> owner;
+		final Object[] values;
+
+		Results(FusedTerminals<?> owner, Object[] values) {
+			this.owner = owner;
+			this.values = values;
+		}
+
+		/**
+		 * @throws IllegalArgumentException if the terminal was registered on another FusedTerminals.
+		 */
+		@SuppressWarnings("unchecked")
+		public <R> R get(Terminal<R> terminal) {
+			if (terminal.owner != owner) {
+				throw new IllegalArgumentException(terminal + " was not registered on these terminals");
+			}
+			return (R) values[terminal.index];
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder("{");
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) {
+					builder.append(", ");
+				}
+				builder.append(owner.operations.get(i).terminal).append('=').append(values[i]);
+			}
+			return builder.append('}').toString();
+		}
+	}
+
+	/**
+	 * A terminal operation as a mutable reduction : A is the accumulator of a leaf, R the value.
+	 */
+	abstract static class Operation<T, A, R> {
+
+		final String name;
+		final boolean shortCircuiting;
+		Terminal<R> terminal;
+
+		Operation(String name, boolean shortCircuiting) {
+			this.name = name;
+			this.shortCircuiting = shortCircuiting;
+		}
+
+		abstract A supply();
+
+		/**
+		 * @return false once the value is decided, i.e. the operation doesn't need more elements.
+		 */
+		abstract boolean accumulate(A accumulator, T element);
+
+		/**
+		 * @param accumulator2 accumulator of the elements encountered after the ones of accumulator1.
+		 */
+		abstract A combine(A accumulator1, A accumulator2);
+
+		abstract R finish(A accumulator);
+	}
+
+	/**
+	 * The accumulator is set once the predicate returns stopOn, which decides the value : true for anyMatch and
+	 * noneMatch, false for allMatch.
+	 */
+	static class MatchOperation<T> extends Operation<T, boolean[], Boolean> {
+
+		final Predicate<? super T> predicate;
+		final boolean stopOn;
+		final boolean valueWhenStopped;
+
+		MatchOperation(String name, Predicate<? super T> predicate, boolean stopOn, boolean valueWhenStopped) {
+			super(name, true);
+			this.predicate = predicate;
+			this.stopOn = stopOn;
+			this.valueWhenStopped = valueWhenStopped;
+		}
+
+		@Override
+		boolean[] supply() {
+			return new boolean[1];
+		}
+
+		@Override
+		boolean accumulate(boolean[] stopped, T element) {
+			if (predicate.test(element) == stopOn) {
+				stopped[0] = true;
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		boolean[] combine(boolean[] stopped1, boolean[] stopped2) {
+			stopped1[0] |= stopped2[0];
+			return stopped1;
+		}
+
+		@Override
+		Boolean finish(boolean[] stopped) {
+			return stopped[0] == valueWhenStopped;
+		}
+	}
+
+	static class CollectOperation<T, A, R> extends Operation<T, A, R> {
+
+		final Supplier<A> supplier;
+		final BiConsumer<A, ? super T> accumulator;
+		final BinaryOperator<A> combiner;
+		final Function<A, R> finisher;
+
+		CollectOperation(Collector<? super T, A, R> collector) {
+			super("collect", false);
+			this.supplier = collector.supplier();
+			this.accumulator = collector.accumulator();
+			this.combiner = collector.combiner();
+			this.finisher = collector.finisher();
+		}
+
+		@Override
+		A supply() {
+			return supplier.get();
+		}
+
+		@Override
+		boolean accumulate(A container, T element) {
+			accumulator.accept(container, element);
+			return true;
+		}
+
+		@Override
+		A combine(A container1, A container2) {
+			return combiner.apply(container1, container2);
+		}
+
+		@Override
+		R finish(A container) {
+			return finisher.apply(container);
+		}
+	}
+
+	/**
+	 * State shared by the leaves of one evaluation : which operations are decided, in parallel only.
+	 */
+	static class Evaluation<T> {
+
+		final Operation<T, ?, ?>[] operations;
+		final boolean allShortCircuiting;
+		final AtomicIntegerArray decided;	// null when sequential
+		final AtomicInteger undecided;
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Evaluation(List<Operation<T, ?, ?>> operations, boolean parallel) {
+			this.operations = operations.toArray(new Operation[0]);
+			this.allShortCircuiting = operations.stream().allMatch(o -> o.shortCircuiting);
+			this.decided = parallel ? new AtomicIntegerArray(operations.size()) : null;
+			this.undecided = new AtomicInteger(operations.size());
+		}
+
+		boolean isDecided(int operation) {
+			return decided != null && decided.get(operation) != 0;
+		}
+
+		void decide(int operation) {
+			if (decided != null && decided.compareAndSet(operation, 0, 1)) {
+				undecided.decrementAndGet();
+			}
+		}
+
+		/**
+		 * True when another leaf decided every operation, so this leaf has nothing left to do.
+		 */
+		boolean isComplete() {
+			return decided != null && allShortCircuiting && undecided.get() == 0;
+		}
+	}
+
+	/**
+	 * The accumulators of one leaf, and the operations it still feeds.
+	 */
+	static class Leaf<T> implements Consumer<T> {
+
+		final Evaluation<T> evaluation;
+		final Object[] accumulators;
+		final int[] active;
+		int activeCount;
+
+		Leaf(Evaluation<T> evaluation) {
+			this.evaluation = evaluation;
+			Operation<T, ?, ?>[] operations = evaluation.operations;
+			this.accumulators = new Object[operations.length];
+			this.active = new int[operations.length];
+			for (int i = 0; i < operations.length; i++) {
+				accumulators[i] = operations[i].supply();
+				if (!evaluation.isDecided(i)) {
+					active[activeCount++] = i;
+				}
+			}
+		}
+
+		@Override
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		public void accept(T element) {
+			for (int j = 0; j < activeCount;) {
+				int i = active[j];
+				Operation operation = evaluation.operations[i];
+				if (evaluation.isDecided(i) || !operation.accumulate(accumulators[i], element)) {
+					if (operation.shortCircuiting) {
+						evaluation.decide(i);
+					}
+					active[j] = active[--activeCount];
+				} else {
+					j++;
+				}
+			}
+		}
+
+		/**
+		 * Feeds the elements of the spliterator to the active operations. Element by element when they may all stop
+		 * early, in bulk otherwise.
+		 */
+		void consume(Spliterator<T> spliterator) {
+			if (evaluation.allShortCircuiting) {
+				while (activeCount > 0 && spliterator.tryAdvance(this)) {
+				}
+			} else {
+				spliterator.forEachRemaining(this);
+			}
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Leaf<T> combine(Leaf<T> next) {
+			for (int i = 0; i < accumulators.length; i++) {
+				Operation operation = evaluation.operations[i];
+				accumulators[i] = operation.combine(accumulators[i], next.accumulators[i]);
+			}
+			return this;
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Object[] finish() {
+			Object[] values = new Object[accumulators.length];
+			for (int i = 0; i < accumulators.length; i++) {
+				Operation operation = evaluation.operations[i];
+				values[i] = operation.finish(accumulators[i]);
+			}
+			return values;
+		}
+	}
+
+	static class EvaluationTask<T> extends RecursiveTask<Leaf<T>> {
+
+		private static final long serialVersionUID = 1L;
+
+		final Evaluation<T> evaluation;
+		final Spliterator<T> spliterator;
+		final long targetSize;
+
+		EvaluationTask(Evaluation<T> evaluation, Spliterator<T> spliterator, long targetSize) {
+			this.evaluation = evaluation;
+			this.spliterator = spliterator;
+			this.targetSize = targetSize;
+		}
+
+		@Override
+		protected Leaf<T> compute() {
+			Spliterator<T> prefix;
+			if (!evaluation.isComplete() && spliterator.estimateSize() > targetSize
+					&& (prefix = spliterator.trySplit()) != null) {
+				EvaluationTask<T> left = new EvaluationTask<>(evaluation, prefix, targetSize);
+				EvaluationTask<T> right = new EvaluationTask<>(evaluation, spliterator, targetSize);
+				right.fork();
+				Leaf<T> leftLeaf = left.compute();
+				return leftLeaf.combine(right.join());
+			}
+			Leaf<T> leaf = new Leaf<>(evaluation);
+			if (!evaluation.isComplete()) {
+				leaf.consume(spliterator);
+			}
+			return leaf;
+		}
+	}
+
+}
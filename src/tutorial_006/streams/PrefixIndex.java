@@ -0,0 +1,333 @@
+package tutorial_006.streams;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A collection of strings indexed by prefix, where StreamsTest scans the whole stringCollection for every
+ * filter(s -> s.startsWith("a")).
+ *
+ * The strings are kept in a radix trie encoded in parallel arrays, one slot per node : the chars of the edge leading to
+ * the node, as a slice of a shared char pool, its depth (chars from the root to the end of the edge), its first child,
+ * its next sibling, the number of strings ending on it and the number of strings below it. A chain of nodes with a
+ * single child is a single edge, so a string shares a node with another one only where they branch : n strings take at
+ * most 2n nodes whatever their length, and the chars of an edge are compared in a loop over the pool instead of jumping
+ * from node to node. Siblings are kept sorted by the first char of their edge, so a depth first walk gives the
+ * strings in String.compareTo() order. A prefix query walks the chars of the prefix once and then only visits the nodes
+ * of the matching strings :
+ * "
+ 	PrefixIndex index = new PrefixIndex(stringCollection);
+ 	index.withPrefix("a").forEach(System.out::println);	// as stream().filter(s -> s.startsWith("a")).sorted()
+ 	int count = index.countWithPrefix("b");	// as stream().filter(s -> s.startsWith("b")).count(), without any walk
+ 	index.add("aaa3");	// no rebuild
+ * "
+ * Duplicates are kept, like in a List. Strings can be added but not removed, and like ArrayList the index is not
+ * thread-safe : iterating while adding throws a ConcurrentModificationException.
+ */
+public class PrefixIndex extends AbstractCollection<String> {
+
+	static final int ROOT = 0;
+	static final int NONE = -1;
+
+	char[] pool = new char[64];	// the chars of the edges, appended as strings are added, never moved
+	int poolLength;
+
+	int[] labelStart;	// the edge leading to the node is pool[labelStart, labelStart + labelLength)
+	int[] labelLength;
+	int[] depth;	// chars from the root to the end of the edge
+	int[] firstChild;
+	int[] nextSibling;
+	int[] ends;	// strings ending on the node
+	int[] counts;	// strings ending on the node or below it
+	int nodes = 1;
+	int modCount;
+
+	public PrefixIndex() {
+		int capacity = 16;
+		labelStart = new int[capacity];
+		labelLength = new int[capacity];
+		depth = new int[capacity];
+		firstChild = new int[capacity];
+		nextSibling = new int[capacity];
+		ends = new int[capacity];
+		counts = new int[capacity];
+		firstChild[ROOT] = NONE;
+		nextSibling[ROOT] = NONE;
+	}
+
+	public PrefixIndex(Collection<String> strings) {
+		this();
+		addAll(strings);
+	}
+
+	/**
+	 * Follows the edges matching string, splits the edge where string leaves it, and hangs the rest of string on a new
+	 * leaf.
+	 */
+	@Override
+	public boolean add(String string) {
+		int node = ROOT;
+		counts[ROOT]++;
+		int i = 0;
+		while (i < string.length()) {
+			char c = string.charAt(i);
+			int previous = NONE;
+			int child = firstChild[node];
+			while (child != NONE && pool[labelStart[child]] < c) {
+				previous = child;
+				child = nextSibling[child];
+			}
+			if (child == NONE || pool[labelStart[child]] != c) {
+				int leaf = newNode(node, string, i);
+				nextSibling[leaf] = child;
+				if (previous == NONE) {
+					firstChild[node] = leaf;
+				} else {
+					nextSibling[previous] = leaf;
+				}
+				node = leaf;
+				break;
+			}
+			int matched = matched(child, string, i);
+			if (matched < labelLength[child]) {
+				split(child, matched);
+			}
+			counts[child]++;
+			node = child;
+			i += matched;
+		}
+		ends[node]++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * A leaf below parent, for the chars of string from offset, counting one string ending on it.
+	 */
+	int newNode(int parent, String string, int offset) {
+		int length = string.length() - offset;
+		if (poolLength + length > pool.length) {
+			pool = Arrays.copyOf(pool, Math.max(poolLength + length, pool.length + (pool.length >> 1)));
+		}
+		string.getChars(offset, string.length(), pool, poolLength);
+		int node = allocate();
+		labelStart[node] = poolLength;
+		labelLength[node] = length;
+		depth[node] = depth[parent] + length;
+		firstChild[node] = NONE;
+		counts[node] = 1;
+		poolLength += length;
+		return node;
+	}
+
+	/**
+	 * Cuts the edge of node after length chars : node keeps the first ones, and a new single child of node takes the
+	 * rest along with the children and strings of node. No char is copied.
+	 */
+	void split(int node, int length) {
+		int tail = allocate();
+		labelStart[tail] = labelStart[node] + length;
+		labelLength[tail] = labelLength[node] - length;
+		depth[tail] = depth[node];
+		firstChild[tail] = firstChild[node];
+		nextSibling[tail] = NONE;
+		ends[tail] = ends[node];
+		counts[tail] = counts[node];
+		labelLength[node] = length;
+		depth[node] -= labelLength[tail];
+		firstChild[node] = tail;
+		ends[node] = 0;
+	}
+
+	int allocate() {
+		if (nodes == labelStart.length) {
+			int capacity = nodes + (nodes >> 1);
+			labelStart = Arrays.copyOf(labelStart, capacity);
+			labelLength = Arrays.copyOf(labelLength, capacity);
+			depth = Arrays.copyOf(depth, capacity);
+			firstChild = Arrays.copyOf(firstChild, capacity);
+			nextSibling = Arrays.copyOf(nextSibling, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			counts = Arrays.copyOf(counts, capacity);
+		}
+		return nodes++;
+	}
+
+	/**
+	 * How many chars of the edge of node match the chars of string from offset.
+	 */
+	int matched(int node, String string, int offset) {
+		int start = labelStart[node];
+		int length = Math.min(labelLength[node], string.length() - offset);
+		int i = 0;
+		while (i < length && pool[start + i] == string.charAt(offset + i)) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * The highest node whose path starts with prefix, or NONE. Its path may go on past the prefix when the prefix ends
+	 * inside its edge.
+	 */
+	int find(String prefix) {
+		int node = ROOT;
+		int i = 0;
+		while (i < prefix.length()) {
+			char c = prefix.charAt(i);
+			int child = firstChild[node];
+			while (child != NONE && pool[labelStart[child]] < c) {
+				child = nextSibling[child];
+			}
+			if (child == NONE || pool[labelStart[child]] != c) {
+				return NONE;
+			}
+			int matched = matched(child, prefix, i);
+			if (matched < Math.min(labelLength[child], prefix.length() - i)) {
+				return NONE;
+			}
+			node = child;
+			i += matched;
+		}
+		return node;
+	}
+
+	@Override
+	public int size() {
+		return counts[ROOT];
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof String)) {
+			return false;
+		}
+		String string = (String) o;
+		int node = find(string);
+		return node != NONE && depth[node] == string.length() && ends[node] > 0;
+	}
+
+	public int countWithPrefix(String prefix) {
+		int node = find(prefix);
+		return node == NONE ? 0 : counts[node];
+	}
+
+	/**
+	 * The strings starting with prefix, sorted.
+	 */
+	public Stream<String> withPrefix(String prefix) {
+		return StreamSupport.stream(spliterator(prefix), false);
+	}
+
+	public Iterator<String> iterator(String prefix) {
+		return new PrefixIterator(prefix, find(prefix));
+	}
+
+	/**
+	 * All the strings, sorted.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return iterator("");
+	}
+
+	@Override
+	public Spliterator<String> spliterator() {
+		return spliterator("");
+	}
+
+	Spliterator<String> spliterator(String prefix) {
+		int node = find(prefix);
+		return Spliterators.spliterator(new PrefixIterator(prefix, node), node == NONE ? 0 : counts[node],
+				Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Depth first walk below a node : path[0..size) holds the nodes from the one below the start down to the current
+	 * one, and chars[0..depth[current]) the path of the current node, i.e. the prefix followed by the rest of the edge
+	 * of the start and the edges of path.
+	 */
+	class PrefixIterator implements Iterator<String> {
+
+		final int expectedModCount = modCount;
+		int[] path = new int[16];
+		int size;
+		char[] chars;
+		int current;
+		int remaining;	// strings ending on the current node still to return
+		int left;	// strings still to return
+
+		PrefixIterator(String prefix, int start) {
+			this.current = start;
+			if (start != NONE) {
+				chars = new char[depth[start] + 16];
+				prefix.getChars(0, prefix.length(), chars, 0);
+				int rest = depth[start] - prefix.length();	// chars of the edge of start past the prefix
+				System.arraycopy(pool, labelStart[start] + labelLength[start] - rest, chars, prefix.length(), rest);
+				remaining = ends[start];
+				left = counts[start];
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return left > 0;
+		}
+
+		@Override
+		public String next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (left == 0) {
+				throw new NoSuchElementException();
+			}
+			while (remaining == 0) {
+				advance();
+				remaining = ends[current];
+			}
+			remaining--;
+			left--;
+			return new String(chars, 0, depth[current]);
+		}
+
+		/**
+		 * Moves to the next node in depth first order : the first child, else the next sibling of the current node or of
+		 * its closest ancestor below the start having one. Only called while strings are left, so such a node exists.
+		 */
+		void advance() {
+			int child = firstChild[current];
+			if (child != NONE) {
+				push(child);
+				return;
+			}
+			while (nextSibling[path[size - 1]] == NONE) {
+				size--;
+			}
+			int sibling = nextSibling[path[size - 1]];
+			size--;
+			push(sibling);
+		}
+
+		void push(int node) {
+			if (size == path.length) {
+				path = Arrays.copyOf(path, size * 2);
+			}
+			if (depth[node] > chars.length) {
+				chars = Arrays.copyOf(chars, Math.max(depth[node], chars.length * 2));
+			}
+			path[size++] = node;
+			System.arraycopy(pool, labelStart[node], chars, depth[node] - labelLength[node], labelLength[node]);
+			current = node;
+		}
+	}
+
+}
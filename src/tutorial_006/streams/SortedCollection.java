@@ -0,0 +1,660 @@
+package tutorial_006.streams;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A collection kept sorted as elements are added and removed, where StreamsTest sorts stringCollection again at every
+ * stream().sorted() : sorted() never changes its source, so each pipeline pays O(n log n) for the same order.
+ *
+ * The elements are kept in a list of sorted chunks of at most MAX_CHUNK_SIZE elements. An element is located by a binary
+ * search on the last element of each chunk and then inside the chunk. Adding or removing it moves at most a chunk of
+ * references, a full chunk being split in two and a chunk falling below a quarter being merged with a neighbour, or
+ * refilled from it when neither has room.
+ * Streaming the elements in order is O(n) and never sorts :
+ * "
+ 	SortedCollection<String> sorted = new SortedCollection<>(stringCollection, Comparator.naturalOrder());	// bulk load
+ 	sorted.stream().filter(s -> s.startsWith("a")).forEach(System.out::println);	// as stream().sorted().filter(...)
+ 	sorted.add("aaa3");
+ 	sorted.range("b", "c").stream().forEach(System.out::println);	// bbb1, bbb2, bbb3
+ * "
+ * Equal elements are kept in insertion order, like a stable sort would, and equality is the one of the comparator, like
+ * in a TreeSet. Null elements are not allowed. Like ArrayList the collection is not thread-safe, and its iterators and
+ * spliterators throw a ConcurrentModificationException if it changes while they are in use.
+ */
+public class SortedCollection<E> extends AbstractCollection<E> {
+
+	static final int MAX_CHUNK_SIZE = 512;
+	static final int MIN_CHUNK_SIZE = MAX_CHUNK_SIZE / 4;
+	static final int BULK_CHUNK_SIZE = MAX_CHUNK_SIZE * 3 / 4;	// leaves room to add without splitting at once
+	static final int INITIAL_CHUNK_CAPACITY = 16;
+
+	final Comparator<? super E> comparator;
+	Object[][] chunks = new Object[4][];
+	int[] sizes = new int[4];
+	int chunkCount;
+	int size;
+	int modCount;
+
+	/**
+	 * @param comparator the order of the elements, or null for their natural order.
+	 */
+	public SortedCollection(Comparator<? super E> comparator) {
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Bulk load : the elements are sorted once with Arrays.sort(), which is linear on an already sorted list, and then
+	 * cut into chunks.
+	 */
+	public SortedCollection(Collection<? extends E> elements, Comparator<? super E> comparator) {
+		this(comparator);
+		load(elements.toArray());
+	}
+
+	public Comparator<? super E> comparator() {
+		return comparator;
+	}
+
+	@SuppressWarnings("unchecked")
+	int compare(Object e1, Object e2) {
+		return comparator == null ? ((Comparable<Object>) e1).compareTo(e2) : comparator.compare((E) e1, (E) e2);
+	}
+
+	@SuppressWarnings("unchecked")
+	void load(Object[] elements) {
+		for (Object element : elements) {
+			Objects.requireNonNull(element);
+		}
+		if (comparator == null) {
+			Arrays.sort(elements);
+		} else {
+			Arrays.sort(elements, (Comparator<Object>) comparator);
+		}
+		int count = (elements.length + BULK_CHUNK_SIZE - 1) / BULK_CHUNK_SIZE;
+		chunks = new Object[Math.max(4, count)][];
+		sizes = new int[chunks.length];
+		for (int c = 0; c < count; c++) {
+			// evenly, so that the last chunk isn't left with the remainder only
+			int from = (int) ((long) elements.length * c / count);
+			int to = (int) ((long) elements.length * (c + 1) / count);
+			chunks[c] = Arrays.copyOfRange(elements, from, from + MAX_CHUNK_SIZE);
+			sizes[c] = to - from;
+		}
+		chunkCount = count;
+		size = elements.length;
+		modCount++;
+	}
+
+	/**
+	 * The first chunk whose last element is greater than e, or greater or equal if !after. chunkCount if none.
+	 */
+	int chunkOf(Object e, boolean after) {
+		int low = 0;
+		int high = chunkCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int c = compare(chunks[mid][sizes[mid] - 1], e);
+			if (after ? c > 0 : c >= 0) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * The index of the first element of the chunk greater than e, or greater or equal if !after.
+	 */
+	int indexOf(int chunk, Object e, boolean after) {
+		Object[] elements = chunks[chunk];
+		int low = 0;
+		int high = sizes[chunk];
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int c = compare(elements[mid], e);
+			if (after ? c > 0 : c >= 0) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * The position of the first element greater than e, or greater or equal if !after, as chunk << 32 | index. The end
+	 * is (chunkCount, 0).
+	 */
+	long position(Object e, boolean after) {
+		int chunk = chunkOf(e, after);
+		return chunk == chunkCount ? (long) chunkCount << 32 : (long) chunk << 32 | indexOf(chunk, e, after);
+	}
+
+	@Override
+	public boolean add(E e) {
+		Objects.requireNonNull(e);
+		if (chunkCount == 0) {
+			insertChunk(0, new Object[INITIAL_CHUNK_CAPACITY], 0);
+			insert(0, 0, e);
+			return true;
+		}
+		int chunk = Math.min(chunkOf(e, true), chunkCount - 1);
+		insert(chunk, indexOf(chunk, e, true), e);
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends E> elements) {
+		if (elements.size() < MAX_CHUNK_SIZE) {
+			return super.addAll(elements);
+		}
+		// the two sorted runs are merged by the TimSort of load() in linear time
+		Object[] added = elements.toArray();
+		Object[] all = toArray();
+		Object[] merged = Arrays.copyOf(all, all.length + added.length);
+		System.arraycopy(added, 0, merged, all.length, added.length);
+		load(merged);
+		return added.length > 0;
+	}
+
+	void insert(int chunk, int index, Object e) {
+		Object[] elements = chunks[chunk];
+		int chunkSize = sizes[chunk];
+		if (chunkSize == elements.length) {
+			if (chunkSize < MAX_CHUNK_SIZE) {
+				elements = chunks[chunk] = Arrays.copyOf(elements, Math.min(MAX_CHUNK_SIZE, chunkSize * 2));
+			} else {
+				int half = chunkSize / 2;
+				insertChunk(chunk + 1, Arrays.copyOfRange(elements, half, half + MAX_CHUNK_SIZE), chunkSize - half);
+				Arrays.fill(elements, half, chunkSize, null);
+				sizes[chunk] = half;
+				if (index > half) {
+					chunk++;
+					index -= half;
+				}
+				elements = chunks[chunk];
+				chunkSize = sizes[chunk];
+			}
+		}
+		System.arraycopy(elements, index, elements, index + 1, chunkSize - index);
+		elements[index] = e;
+		sizes[chunk]++;
+		size++;
+		modCount++;
+	}
+
+	void insertChunk(int chunk, Object[] elements, int chunkSize) {
+		if (chunkCount == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunkCount * 2);
+			sizes = Arrays.copyOf(sizes, chunkCount * 2);
+		}
+		System.arraycopy(chunks, chunk, chunks, chunk + 1, chunkCount - chunk);
+		System.arraycopy(sizes, chunk, sizes, chunk + 1, chunkCount - chunk);
+		chunks[chunk] = elements;
+		sizes[chunk] = chunkSize;
+		chunkCount++;
+	}
+
+	void removeChunk(int chunk) {
+		System.arraycopy(chunks, chunk + 1, chunks, chunk, chunkCount - chunk - 1);
+		System.arraycopy(sizes, chunk + 1, sizes, chunk, chunkCount - chunk - 1);
+		chunkCount--;
+		chunks[chunkCount] = null;
+	}
+
+	/**
+	 * Removes the first element equal to o according to the comparator.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (o == null || chunkCount == 0) {
+			return false;
+		}
+		int chunk = chunkOf(o, false);
+		if (chunk == chunkCount) {
+			return false;
+		}
+		int index = indexOf(chunk, o, false);
+		if (compare(chunks[chunk][index], o) != 0) {
+			return false;
+		}
+		removeAt(chunk, index);
+		return true;
+	}
+
+	void removeAt(int chunk, int index) {
+		Object[] elements = chunks[chunk];
+		int chunkSize = --sizes[chunk];
+		System.arraycopy(elements, index + 1, elements, index, chunkSize - index);
+		elements[chunkSize] = null;
+		size--;
+		modCount++;
+		if (chunkSize == 0) {
+			removeChunk(chunk);
+		} else if (chunkSize < MIN_CHUNK_SIZE && chunkCount > 1) {
+			rebalance(chunk);
+		}
+	}
+
+	/**
+	 * Merges a chunk fallen below MIN_CHUNK_SIZE with a neighbour it fits with, or else moves elements over from the
+	 * larger neighbour : both neighbours then hold more than MAX_CHUNK_SIZE - MIN_CHUNK_SIZE elements, so after sharing
+	 * them evenly both chunks are above MIN_CHUNK_SIZE.
+	 */
+	void rebalance(int chunk) {
+		int chunkSize = sizes[chunk];
+		int previous = chunk > 0 ? sizes[chunk - 1] : MAX_CHUNK_SIZE;
+		int next = chunk + 1 < chunkCount ? sizes[chunk + 1] : MAX_CHUNK_SIZE;
+		if (previous + chunkSize <= MAX_CHUNK_SIZE) {
+			moveFirst(chunk, chunk - 1, chunkSize);
+			removeChunk(chunk);
+		} else if (chunkSize + next <= MAX_CHUNK_SIZE) {
+			moveFirst(chunk + 1, chunk, next);
+			removeChunk(chunk + 1);
+		} else if (chunk + 1 < chunkCount && (chunk == 0 || next >= previous)) {
+			moveFirst(chunk + 1, chunk, (next - chunkSize) / 2);
+		} else {
+			moveLast(chunk - 1, chunk, (previous - chunkSize) / 2);
+		}
+	}
+
+	/**
+	 * Moves the count first elements of a chunk to the end of the chunk before it, or the chunk after it.
+	 */
+	void moveFirst(int from, int to, int count) {
+		Object[] target = capacity(to, sizes[to] + count);
+		Object[] source = chunks[from];
+		System.arraycopy(source, 0, target, sizes[to], count);
+		System.arraycopy(source, count, source, 0, sizes[from] - count);
+		Arrays.fill(source, sizes[from] - count, sizes[from], null);
+		sizes[to] += count;
+		sizes[from] -= count;
+	}
+
+	/**
+	 * Moves the count last elements of a chunk to the start of the chunk after it.
+	 */
+	void moveLast(int from, int to, int count) {
+		Object[] target = capacity(to, sizes[to] + count);
+		Object[] source = chunks[from];
+		System.arraycopy(target, 0, target, count, sizes[to]);
+		System.arraycopy(source, sizes[from] - count, target, 0, count);
+		Arrays.fill(source, sizes[from] - count, sizes[from], null);
+		sizes[to] += count;
+		sizes[from] -= count;
+	}
+
+	Object[] capacity(int chunk, int capacity) {
+		if (chunks[chunk].length < capacity) {
+			chunks[chunk] = Arrays.copyOf(chunks[chunk], MAX_CHUNK_SIZE);
+		}
+		return chunks[chunk];
+	}
+
+	/**
+	 * Compacts the chunks in a single pass instead of removing the elements one by one.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean removeIf(Predicate<? super E> filter) {
+		Object[] kept = new Object[size];
+		int count = 0;
+		for (int c = 0; c < chunkCount; c++) {
+			Object[] elements = chunks[c];
+			for (int i = 0; i < sizes[c]; i++) {
+				if (!filter.test((E) elements[i])) {
+					kept[count++] = elements[i];
+				}
+			}
+		}
+		if (count == size) {
+			return false;
+		}
+		load(Arrays.copyOf(kept, count));
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o == null || chunkCount == 0) {
+			return false;
+		}
+		int chunk = chunkOf(o, false);
+		return chunk < chunkCount && compare(chunks[chunk][indexOf(chunk, o, false)], o) == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		chunks = new Object[4][];
+		sizes = new int[4];
+		chunkCount = 0;
+		size = 0;
+		modCount++;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E first() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return (E) chunks[0][0];
+	}
+
+	@SuppressWarnings("unchecked")
+	public E last() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return (E) chunks[chunkCount - 1][sizes[chunkCount - 1] - 1];
+	}
+
+	/**
+	 * The number of elements from the start to the position chunk << 32 | index, in O(chunks).
+	 */
+	int rank(long position) {
+		int chunk = (int) (position >>> 32);
+		int rank = (int) position;
+		for (int c = 0; c < chunk; c++) {
+			rank += sizes[c];
+		}
+		return rank;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Itr(0, size);
+	}
+
+	@Override
+	public Spliterator<E> spliterator() {
+		return new ChunkSpliterator(0, 0, chunkCount, 0, size);
+	}
+
+	/**
+	 * Live view of the elements from fromElement inclusive to toElement exclusive, like TreeSet.subSet().
+	 */
+	public Collection<E> range(E fromElement, E toElement) {
+		if (compare(fromElement, toElement) > 0) {
+			throw new IllegalArgumentException("fromElement > toElement");
+		}
+		return new Range(fromElement, toElement);
+	}
+
+	/**
+	 * Live view of the elements less than toElement.
+	 */
+	public Collection<E> headRange(E toElement) {
+		return new Range(null, Objects.requireNonNull(toElement));
+	}
+
+	/**
+	 * Live view of the elements greater or equal to fromElement.
+	 */
+	public Collection<E> tailRange(E fromElement) {
+		return new Range(Objects.requireNonNull(fromElement), null);
+	}
+
+	/**
+	 * Elements between two bounds, null meaning unbounded, whose positions are searched again at each call so that the
+	 * view follows the changes of the collection.
+	 */
+	class Range extends AbstractCollection<E> {
+
+		final E from;
+		final E to;
+
+		Range(E from, E to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		long start() {
+			return from == null ? 0 : position(from, false);
+		}
+
+		long end() {
+			return to == null ? (long) chunkCount << 32 : position(to, false);
+		}
+
+		boolean inRange(Object o) {
+			return (from == null || compare(o, from) >= 0) && (to == null || compare(o, to) < 0);
+		}
+
+		@Override
+		public int size() {
+			return rank(end()) - rank(start());
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return o != null && inRange(o) && SortedCollection.this.contains(o);
+		}
+
+		@Override
+		public boolean add(E e) {
+			if (!inRange(e)) {
+				throw new IllegalArgumentException("element out of range");
+			}
+			return SortedCollection.this.add(e);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			return o != null && inRange(o) && SortedCollection.this.remove(o);
+		}
+
+		/**
+		 * Removes through the collection, like the iterator of TreeSet.subSet(), so that clear() and removeIf() of the
+		 * view remove from the collection.
+		 */
+		@Override
+		public Iterator<E> iterator() {
+			return new Itr(rank(start()), rank(end()));
+		}
+
+		@Override
+		public Spliterator<E> spliterator() {
+			long start = start();
+			long end = end();
+			return new ChunkSpliterator((int) (start >>> 32), (int) start, (int) (end >>> 32), (int) end,
+					rank(end) - rank(start));
+		}
+	}
+
+	/**
+	 * Iterator over the elements of ranks from rank inclusive to end exclusive, whose remove() relocates the cursor by
+	 * rank, since removing may merge chunks.
+	 */
+	class Itr implements Iterator<E> {
+
+		int chunk;
+		int index;
+		int rank;	// of the next element
+		int end;
+		boolean removable;
+		int expectedModCount = modCount;
+
+		Itr(int rank, int end) {
+			this.rank = rank;
+			this.end = end;
+			locate();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return rank < end;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (rank >= end) {
+				throw new NoSuchElementException();
+			}
+			if (index == sizes[chunk]) {
+				chunk++;
+				index = 0;
+			}
+			rank++;
+			removable = true;
+			return (E) chunks[chunk][index++];
+		}
+
+		@Override
+		public void remove() {
+			if (!removable) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			removeAt(chunk, index - 1);
+			removable = false;
+			expectedModCount = modCount;
+			rank--;
+			end--;
+			locate();
+		}
+
+		/**
+		 * Moves the cursor to rank, at the end of a chunk rather than at the start of the next one like next() expects.
+		 */
+		void locate() {
+			chunk = 0;
+			index = rank;
+			while (chunk < chunkCount && index > sizes[chunk]) {
+				index -= sizes[chunk++];
+			}
+		}
+	}
+
+	/**
+	 * The elements from (chunk, index) inclusive to (endChunk, endIndex) exclusive, split on chunk boundaries and then
+	 * inside a chunk.
+	 */
+	class ChunkSpliterator implements Spliterator<E> {
+
+		int chunk;
+		int index;
+		int endChunk;
+		int endIndex;
+		int remaining;
+		final int expectedModCount = modCount;
+
+		ChunkSpliterator(int chunk, int index, int endChunk, int endIndex, int remaining) {
+			this.chunk = chunk;
+			this.index = index;
+			this.endChunk = endChunk;
+			this.endIndex = endIndex;
+			this.remaining = remaining;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean tryAdvance(Consumer<? super E> action) {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (remaining == 0) {
+				return false;
+			}
+			if (index == sizes[chunk]) {
+				chunk++;
+				index = 0;
+			}
+			remaining--;
+			action.accept((E) chunks[chunk][index++]);
+			return true;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void forEachRemaining(Consumer<? super E> action) {
+			Object[][] chunks = SortedCollection.this.chunks;
+			int[] sizes = SortedCollection.this.sizes;
+			for (int c = chunk; remaining > 0; c++) {
+				Object[] elements = chunks[c];
+				int end = Math.min(sizes[c], index + remaining);
+				for (int i = index; i < end; i++) {
+					action.accept((E) elements[i]);
+				}
+				remaining -= end - index;
+				chunk = c;
+				index = end;
+				if (remaining > 0) {
+					index = 0;
+				}
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			if (endChunk - chunk >= 2) {
+				int mid = (chunk + endChunk) >>> 1;
+				int prefix = sizes[chunk] - index;
+				for (int c = chunk + 1; c < mid; c++) {
+					prefix += sizes[c];
+				}
+				ChunkSpliterator split = new ChunkSpliterator(chunk, index, mid, 0, prefix);
+				chunk = mid;
+				index = 0;
+				remaining -= prefix;
+				return split;
+			}
+			if (remaining < 2) {
+				return null;
+			}
+			if (index == sizes[chunk]) {
+				chunk++;
+				index = 0;
+			}
+			int half = Math.min(remaining, sizes[chunk] - index) / 2;
+			if (half == 0) {
+				return null;
+			}
+			ChunkSpliterator split = new ChunkSpliterator(chunk, index, chunk, index + half, half);
+			index += half;
+			remaining -= half;
+			return split;
+		}
+
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED | Spliterator.SUBSIZED
+					| Spliterator.NONNULL;
+		}
+
+		@Override
+		public Comparator<? super E> getComparator() {
+			return comparator;
+		}
+	}
+
+}
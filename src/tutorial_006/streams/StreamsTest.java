@@ -1,8 +1,10 @@
 package tutorial_006.streams;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class StreamsTest {
 
@@ -123,5 +125,64 @@ public class StreamsTest {
 		        .reduce((s1, s2) -> s1 + "#" + s2);
 
 	reduced.ifPresent(System.out::println); // Output "aaa1#aaa2#bbb1#bbb2#bbb3#ccc#ddd1#ddd2"
+
+	/*
+	 * Each s1 + "#" + s2 copies the whole string built so far, so this reduction is quadratic in the number of elements. 
+	 * A joining collector appends each string once (see also JoiningCollectors in tutorial_011) :
+	 */
+	String joined =
+		    stringCollection
+		        .stream()
+		        .sorted()
+		        .collect(Collectors.joining("#"));
+
+	System.out.println(joined); // Output "aaa1#aaa2#bbb1#bbb2#bbb3#ccc#ddd1#ddd2"
+
+	System.out.println("=====================================");
+
+	/*
+	 * Every terminal operation above scanned stringCollection again. FusedTerminals registers several terminal operations 
+	 * on one source and evaluates them all in a single pass, sequential or parallel. The matching operations stop testing 
+	 * their predicate as soon as their result is known :
+	 */
+	FusedTerminals<String> terminals = FusedTerminals.of(stringCollection);
+	FusedTerminals.Terminal<Boolean> anyA = terminals.anyMatch((s) -> s.startsWith("a"));
+	FusedTerminals.Terminal<Boolean> allA = terminals.allMatch((s) -> s.startsWith("a"));
+	FusedTerminals.Terminal<Boolean> noneZ = terminals.noneMatch((s) -> s.startsWith("z"));
+	FusedTerminals.Terminal<Long> count = terminals.count();
+	FusedTerminals.Terminal<Optional<String>> longest = terminals.reduce((s1, s2) -> s1.length() >= s2.length() ? s1 : s2);
+
+	FusedTerminals.Results results = terminals.evaluateParallel();
+
+	System.out.println(results.get(anyA) + " " + results.get(allA) + " " + results.get(noneZ)); // true false true
+	System.out.println(results.get(count)); // 8
+	results.get(longest).ifPresent(System.out::println); // ddd2
+
+	System.out.println("=====================================");
+
+	/*
+	 * Each filter((s) -> s.startsWith("a")) above tests every string of stringCollection. PrefixIndex keeps the strings 
+	 * in a trie, so a prefix query only walks the prefix and the matching strings, which come out sorted, and a prefix 
+	 * count doesn't walk the strings at all. New strings are added without rebuilding the index :
+	 */
+	PrefixIndex index = new PrefixIndex(stringCollection);
+	index.withPrefix("a").forEach(System.out::println); // Output "aaa1", "aaa2".
+	System.out.println(index.countWithPrefix("b")); // 3
+	index.add("bbb0");
+	System.out.println(index.withPrefix("bbb").collect(Collectors.toList())); // [bbb0, bbb1, bbb2, bbb3]
+
+	System.out.println("=====================================");
+
+	/*
+	 * sorted() never changes stringCollection, so every sorted pipeline above sorts it again. SortedCollection keeps its 
+	 * elements sorted as they are added and removed : it is sorted once when loaded, then streaming it in order costs no 
+	 * sort, and a range of elements is found by binary search :
+	 */
+	SortedCollection<String> sortedCollection = new SortedCollection<>(stringCollection, Comparator.naturalOrder());
+	sortedCollection.add("aaa0");
+	sortedCollection.remove("ddd2");
+	sortedCollection.stream().filter((s) -> s.startsWith("a")).forEach(System.out::println); // Output "aaa0", "aaa1", "aaa2".
+	System.out.println(sortedCollection.range("b", "c")); // [bbb1, bbb2, bbb3]
+	System.out.println(sortedCollection.tailRange("c")); // [ccc, ddd1]
   }
 }
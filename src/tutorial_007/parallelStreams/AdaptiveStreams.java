@@ -0,0 +1,246 @@
+package tutorial_007.parallelStreams;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Chooses between stream() and parallelStream() per call site instead of hard-coding it.
+ *
+ * A call site is either a name given by the caller or, by default, the class of the pipeline lambda (the JVM creates
+ * one class per lambda expression). The first executions of a call site run sequentially to sample the cost of one
+ * element (elapsed nanoseconds divided by the source size). Afterwards each execution :
+ * - runs sequentially when size * cost is below parallelCostThreshold, since splitting would cost more than it saves,
+ *   or when the pool running the stream has a single worker.
+ * - otherwise runs in parallel, with a fork/join split threshold (the minimum number of elements of a task) chosen so
+ *   that each leaf task is worth at least targetLeafNanos. The threshold is never below the leaf size of the JDK's own
+ *   splitting, a few tasks per worker, so cheap elements only get larger leaves, and fewer tasks to fork and join.
+ * Parallel executions are measured as well : if parallel turns out slower than the sampled sequential cost, the call
+ * site goes back to sequential. Every reprobeInterval executions the other mode is tried again to follow changes.
+ *
+ * decisions() exposes what was decided for each call site :
+ * "
+ 	AdaptiveStreams adaptive = new AdaptiveStreams();
+ 	long count = adaptive.execute("sortUuids", intList, s -> s.sorted().count());
+ 	System.out.println(adaptive.decision("sortUuids"));
+ * "
+ */
+public class AdaptiveStreams {
+
+	static final int DEFAULT_SAMPLES = 3;
+	static final long DEFAULT_PARALLEL_COST_THRESHOLD = 200_000;	// 0.2 ms of sequential work
+	static final long DEFAULT_TARGET_LEAF_NANOS = 50_000;
+	static final int DEFAULT_REPROBE_INTERVAL = 64;
+	static final int TASKS_PER_WORKER = 4;
+
+	final int samples;
+	final long parallelCostThreshold;
+	final long targetLeafNanos;
+	final int reprobeInterval;
+	final ConcurrentMap<String, Profile> profiles = new ConcurrentHashMap<>();
+
+	public AdaptiveStreams() {
+		this(DEFAULT_SAMPLES, DEFAULT_PARALLEL_COST_THRESHOLD, DEFAULT_TARGET_LEAF_NANOS, DEFAULT_REPROBE_INTERVAL);
+	}
+
+	public AdaptiveStreams(int samples, long parallelCostThreshold, long targetLeafNanos, int reprobeInterval) {
+		if (samples < 1 || reprobeInterval < 2) {
+			throw new IllegalArgumentException("samples must be positive and reprobeInterval at least 2");
+		}
+		this.samples = samples;
+		this.parallelCostThreshold = parallelCostThreshold;
+		this.targetLeafNanos = targetLeafNanos;
+		this.reprobeInterval = reprobeInterval;
+	}
+
+	/**
+	 * Runs the pipeline on a sequential or parallel stream of the source, the call site being the pipeline class.
+	 */
+	public <T, R> R execute(Collection<T> source, Function<Stream<T>, R> pipeline) {
+		return execute(pipeline.getClass().getName(), source, pipeline);
+	}
+
+	public <T, R> R execute(String callSite, Collection<T> source, Function<Stream<T>, R> pipeline) {
+		Profile profile = profiles.computeIfAbsent(callSite, Profile::new);
+		int size = source.size();
+		Decision decision = profile.plan(size);
+		Stream<T> stream = decision.parallel
+				? StreamSupport.stream(new ThresholdSpliterator<>(source.spliterator(), decision.splitThreshold), true)
+				: source.stream();
+		long start = System.nanoTime();
+		R result = pipeline.apply(stream);
+		profile.record(decision, size, System.nanoTime() - start);
+		return result;
+	}
+
+	public Decision decision(String callSite) {
+		Profile profile = profiles.get(callSite);
+		return profile == null ? null : profile.snapshot();
+	}
+
+	public List<Decision> decisions() {
+		List<Decision> decisions = new ArrayList<>();
+		profiles.values().forEach(p -> decisions.add(p.snapshot()));
+		return Collections.unmodifiableList(decisions);
+	}
+
+	/**
+	 * What was decided for a call site, with the measurements behind the decision.
+	 */
+	public static class Decision {
+
+		public final String callSite;
+		public final long executions;
+		public final int size;
+		public final boolean parallel;
+		public final long splitThreshold;
+		public final double sequentialNanosPerElement;
+		public final double parallelNanosPerElement;
+
+		Decision(String callSite, long executions, int size, boolean parallel, long splitThreshold,
+				double sequentialNanosPerElement, double parallelNanosPerElement) {
+			this.callSite = callSite;
+			this.executions = executions;
+			this.size = size;
+			this.parallel = parallel;
+			this.splitThreshold = splitThreshold;
+			this.sequentialNanosPerElement = sequentialNanosPerElement;
+			this.parallelNanosPerElement = parallelNanosPerElement;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %s (size=%d, splitThreshold=%d, executions=%d, sequential=%.1f ns/elt, parallel=%.1f ns/elt)",
+					callSite, parallel ? "parallel" : "sequential", size, splitThreshold, executions,
+					sequentialNanosPerElement, parallelNanosPerElement);
+		}
+	}
+
+	/**
+	 * Measurements of one call site. Costs are exponential moving averages of nanoseconds per element, NaN until the
+	 * first measurement of the corresponding mode.
+	 */
+	class Profile {
+
+		final String callSite;
+		long executions;
+		double sequentialCost = Double.NaN;
+		double parallelCost = Double.NaN;
+		Decision last;
+
+		Profile(String callSite) {
+			this.callSite = callSite;
+		}
+
+		synchronized Decision plan(int size) {
+			long execution = executions++;
+			boolean parallel;
+			if (execution < samples || Double.isNaN(sequentialCost) || size == 0) {
+				parallel = false;
+			} else if (size * sequentialCost < parallelCostThreshold || workers() < 2) {
+				parallel = false;
+			} else {
+				parallel = Double.isNaN(parallelCost) || parallelCost < sequentialCost;
+				if (execution % reprobeInterval == 0) {
+					parallel = !parallel;
+				}
+			}
+			long splitThreshold = parallel ? splitThreshold(size) : size;
+			last = new Decision(callSite, executions, size, parallel, splitThreshold, sequentialCost, parallelCost);
+			return last;
+		}
+
+		long splitThreshold(int size) {
+			long leafForCost = (long) Math.ceil(targetLeafNanos / Math.max(sequentialCost, 1e-3));
+			long leafForBalance = Math.max(1, size / ((long) workers() * TASKS_PER_WORKER));
+			return Math.max(leafForCost, leafForBalance);
+		}
+
+		int workers() {
+			return ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool().getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+		}
+
+		synchronized void record(Decision decision, int size, long nanos) {
+			if (size == 0) {
+				return;
+			}
+			double cost = (double) nanos / size;
+			if (decision.parallel) {
+				parallelCost = Double.isNaN(parallelCost) ? cost : 0.75 * parallelCost + 0.25 * cost;
+			} else {
+				sequentialCost = Double.isNaN(sequentialCost) ? cost : 0.75 * sequentialCost + 0.25 * cost;
+			}
+		}
+
+		synchronized Decision snapshot() {
+			return last == null ? null
+					: new Decision(callSite, executions, last.size, last.parallel, last.splitThreshold, sequentialCost, parallelCost);
+		}
+	}
+
+	/**
+	 * Spliterator refusing to split below a given number of elements, which bounds the number of fork/join tasks the
+	 * parallel stream creates.
+	 */
+	static class ThresholdSpliterator<T> implements Spliterator<T> {
+
+		final Spliterator<T> delegate;
+		final long threshold;
+
+		ThresholdSpliterator(Spliterator<T> delegate, long threshold) {
+			this.delegate = delegate;
+			this.threshold = threshold;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			return delegate.tryAdvance(action);
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			delegate.forEachRemaining(action);
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			if (delegate.estimateSize() <= threshold) {
+				return null;
+			}
+			Spliterator<T> prefix = delegate.trySplit();
+			return prefix == null ? null : new ThresholdSpliterator<>(prefix, threshold);
+		}
+
+		@Override
+		public long estimateSize() {
+			return delegate.estimateSize();
+		}
+
+		@Override
+		public long getExactSizeIfKnown() {
+			return delegate.getExactSizeIfKnown();
+		}
+
+		@Override
+		public int characteristics() {
+			return delegate.characteristics();
+		}
+
+		@Override
+		public Comparator<? super T> getComparator() {
+			return delegate.getComparator();
+		}
+	}
+
+}
@@ -0,0 +1,375 @@
+package tutorial_007.parallelStreams;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * sorted() for Stream<String> whose content does not fit in the heap.
+ *
+ * The source is buffered up to a memory budget. Each full buffer is sorted in parallel then written as a "run" to a
+ * temporary file. The returned stream lazily merges the runs (k-way merge through a priority queue of run readers),
+ * so memory stays bounded by the budget plus one read buffer per run, and disk accesses are sequential. When there are
+ * more runs than maxFanIn, groups of runs are first merged into bigger runs.
+ *
+ * Runs store each String as its length followed by its raw UTF-16 chars, so that any String (including unpaired
+ * surrogates) is read back exactly. Temporary files are deleted once the merge is exhausted or the stream is closed,
+ * so prefer a try-with-resources block when the stream may not be fully consumed :
+ * "
+ 	try (Stream<String> sorted = new ExternalSort(64 << 20).sorted(ids)) {
+ 		sorted.limit(10).forEach(System.out::println);
+ 	}
+ * "
+ */
+public class ExternalSort {
+
+	static final int STRING_OVERHEAD = 48;	// header, char array header and reference of a buffered String
+	static final int IO_BUFFER_SIZE = 1 << 16;
+	static final int DEFAULT_MAX_FAN_IN = 64;
+
+	final long memoryBudget;
+	final Path tempDirectory;
+	final Comparator<? super String> comparator;
+	final int maxFanIn;
+
+	/**
+	 * Natural order, runs written to the default temporary directory.
+	 */
+	public ExternalSort(long memoryBudget) {
+		this(memoryBudget, null, null, DEFAULT_MAX_FAN_IN);
+	}
+
+	/**
+	 * @param tempDirectory directory of the run files, null for the default temporary directory.
+	 * @param comparator order of the output, null for natural order.
+	 * @param maxFanIn maximum number of runs merged at once.
+	 */
+	public ExternalSort(long memoryBudget, Path tempDirectory, Comparator<? super String> comparator, int maxFanIn) {
+		if (memoryBudget <= 0) {
+			throw new IllegalArgumentException("memoryBudget must be positive: " + memoryBudget);
+		}
+		if (maxFanIn < 2) {
+			throw new IllegalArgumentException("maxFanIn must be at least 2: " + maxFanIn);
+		}
+		this.memoryBudget = memoryBudget;
+		this.tempDirectory = tempDirectory;
+		this.comparator = comparator;
+		this.maxFanIn = maxFanIn;
+	}
+
+	/**
+	 * Same content as source.sorted(). The source is only consumed when a terminal operation is invoked on the returned
+	 * sequential stream.
+	 */
+	public Stream<String> sorted(Stream<String> source) {
+		Merge merge = new Merge();
+		return StreamSupport.stream(() -> merge.open(source),
+				Spliterator.ORDERED | Spliterator.NONNULL,
+				false)
+				.onClose(merge::close)
+				.onClose(source::close);
+	}
+
+	void sortBuffer(String[] buffer) {
+		if (comparator == null) {
+			StringRadixSort.parallelSort(buffer);
+		} else {
+			Arrays.parallelSort(buffer, comparator);
+		}
+	}
+
+	int compare(String s1, String s2) {
+		return comparator == null ? s1.compareTo(s2) : comparator.compare(s1, s2);
+	}
+
+	Path createRunFile() throws IOException {
+		return tempDirectory == null
+				? Files.createTempFile("sort-run-", ".tmp")
+				: Files.createTempFile(tempDirectory, "sort-run-", ".tmp");
+	}
+
+	Path writeRun(Iterator<String> sorted) throws IOException {
+		Path run = createRunFile();
+		try (RunWriter writer = new RunWriter(run)) {
+			while (sorted.hasNext()) {
+				writer.write(sorted.next());
+			}
+		}
+		return run;
+	}
+
+	/**
+	 * State of one sorted() stream : the run files and the readers of the final merge.
+	 */
+	class Merge {
+
+		final List<Path> runs = new ArrayList<>();
+		final List<RunReader> readers = new ArrayList<>();
+
+		Spliterator<String> open(Stream<String> source) {
+			try {
+				List<String> buffer = new ArrayList<>();
+				long bufferBytes = 0;
+				Iterator<String> iterator = source.iterator();
+				while (iterator.hasNext()) {
+					String s = iterator.next();
+					buffer.add(s);
+					bufferBytes += STRING_OVERHEAD + 2L * s.length();
+					if (bufferBytes >= memoryBudget) {
+						runs.add(writeRun(sortedIterator(buffer)));
+						buffer.clear();
+						bufferBytes = 0;
+					}
+				}
+				if (runs.isEmpty()) {
+					return Spliterators.spliteratorUnknownSize(sortedIterator(buffer), Spliterator.ORDERED | Spliterator.NONNULL);
+				}
+				if (!buffer.isEmpty()) {
+					runs.add(writeRun(sortedIterator(buffer)));
+					buffer.clear();
+				}
+				while (runs.size() > maxFanIn) {
+					mergePass();
+				}
+				for (Path run : runs) {
+					readers.add(new RunReader(run));
+				}
+				return new MergeSpliterator(readers, this::close);
+			} catch (IOException e) {
+				close();
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		Iterator<String> sortedIterator(List<String> buffer) {
+			String[] array = buffer.toArray(new String[buffer.size()]);
+			sortBuffer(array);
+			return Arrays.asList(array).iterator();
+		}
+
+		/**
+		 * Merges the runs maxFanIn at a time into bigger runs.
+		 */
+		void mergePass() throws IOException {
+			List<Path> merged = new ArrayList<>();
+			try {
+				for (int start = 0; start < runs.size(); start += maxFanIn) {
+					List<Path> group = runs.subList(start, Math.min(start + maxFanIn, runs.size()));
+					List<RunReader> groupReaders = new ArrayList<>();
+					try {
+						for (Path run : group) {
+							groupReaders.add(new RunReader(run));
+						}
+						merged.add(writeRun(Spliterators.iterator(new MergeSpliterator(groupReaders, () -> {}))));
+					} finally {
+						for (RunReader reader : groupReaders) {
+							reader.close();
+						}
+					}
+				}
+			} catch (IOException | UncheckedIOException e) {
+				runs.addAll(merged);	// deleted by close()
+				throw e;
+			}
+			for (Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+			runs.clear();
+			runs.addAll(merged);
+		}
+
+		void close() {
+			for (RunReader reader : readers) {
+				reader.close();
+			}
+			readers.clear();
+			for (Path run : runs) {
+				try {
+					Files.deleteIfExists(run);
+				} catch (IOException e) {
+					// best effort : the file lives in a temporary directory anyway
+				}
+			}
+			runs.clear();
+		}
+
+		/**
+		 * Lazy k-way merge : each step polls the reader holding the smallest head and advances it. Equal heads are polled
+		 * in the order of their runs, which hold the source in its order, so the merge is stable like sorted().
+		 */
+		class MergeSpliterator extends Spliterators.AbstractSpliterator<String> {
+
+			final PriorityQueue<RunReader> queue;
+			final Runnable onExhausted;
+
+			MergeSpliterator(List<RunReader> sources, Runnable onExhausted) throws IOException {
+				super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+				this.onExhausted = onExhausted;
+				queue = new PriorityQueue<>(Math.max(1, sources.size()), (r1, r2) -> {
+					int c = compare(r1.head, r2.head);
+					return c != 0 ? c : Integer.compare(r1.run, r2.run);
+				});
+				for (int i = 0; i < sources.size(); i++) {
+					RunReader reader = sources.get(i);
+					reader.run = i;
+					if (reader.advance()) {
+						queue.add(reader);
+					}
+				}
+			}
+
+			@Override
+			public boolean tryAdvance(Consumer<? super String> action) {
+				RunReader reader = queue.poll();
+				if (reader == null) {
+					onExhausted.run();
+					return false;
+				}
+				String head = reader.head;
+				try {
+					if (reader.advance()) {
+						queue.add(reader);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				action.accept(head);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Sequential writer of a run file : each String is its length (int) followed by its chars.
+	 */
+	static class RunWriter implements AutoCloseable {
+
+		final FileChannel channel;
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+
+		RunWriter(Path path) throws IOException {
+			channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		void write(String s) throws IOException {
+			if (buffer.remaining() < 4) {
+				flush();
+			}
+			buffer.putInt(s.length());
+			int written = 0;
+			while (written < s.length()) {
+				if (buffer.remaining() < 2) {
+					flush();
+				}
+				int n = Math.min(s.length() - written, buffer.remaining() / 2);
+				buffer.asCharBuffer().put(s, written, written + n);
+				buffer.position(buffer.position() + 2 * n);
+				written += n;
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Sequential reader of a run file, exposing the String it last read as head.
+	 */
+	static class RunReader implements AutoCloseable {
+
+		final FileChannel channel;
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+		String head;
+		int run;	// index of the run among the ones merged, to break ties
+
+		RunReader(Path path) throws IOException {
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+			buffer.flip();
+		}
+
+		/**
+		 * Reads the next String into head. Returns false at the end of the run.
+		 */
+		boolean advance() throws IOException {
+			if (!ensure(4)) {
+				head = null;
+				return false;
+			}
+			char[] chars = new char[buffer.getInt()];
+			int read = 0;
+			while (read < chars.length) {
+				if (!ensure(2)) {
+					throw new IOException("Truncated run file");
+				}
+				int n = Math.min(chars.length - read, buffer.remaining() / 2);
+				buffer.asCharBuffer().get(chars, read, n);
+				buffer.position(buffer.position() + 2 * n);
+				read += n;
+			}
+			head = new String(chars);
+			return true;
+		}
+
+		/**
+		 * Makes at least n bytes available in the buffer. Returns false if the file ends before.
+		 */
+		boolean ensure(int n) throws IOException {
+			if (buffer.remaining() >= n) {
+				return true;
+			}
+			buffer.compact();
+			try {
+				while (buffer.position() < n) {
+					if (channel.read(buffer) < 0) {
+						if (buffer.position() == 0) {
+							return false;
+						}
+						throw new IOException("Truncated run file");
+					}
+				}
+			} finally {
+				buffer.flip();
+			}
+			return true;
+		}
+
+		@Override
+		public void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// nothing left to read : ignore
+			}
+		}
+	}
+
+}
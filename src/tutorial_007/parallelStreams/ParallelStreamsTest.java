@@ -2,7 +2,6 @@ package tutorial_007.parallelStreams;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 public class ParallelStreamsTest {
@@ -18,10 +17,11 @@ public class ParallelStreamsTest {
 		 */
 		int max = 1_000_000;
 		List<String> intList = new ArrayList<>(max);
-		for (int i = 0; i < max; i++) {
-		    UUID uuid = UUID.randomUUID();
-		    intList.add(uuid.toString());
-		}
+		/*
+		 * UUID.randomUUID() draws from a single shared SecureRandom, which makes filling the list the slowest part of this 
+		 * sample. UuidGenerator produces the same kind of random (version 4) UUIDs in parallel across the cores :
+		 */
+		UuidGenerator.splittable().fill(intList, max);
 
 		/*
 		 * Firstly we try with basic stream :
@@ -54,6 +54,25 @@ public class ParallelStreamsTest {
 		 * As you can see both code snippets are almost identical but the parallel sort is roughly 50% faster. 
 		 * All you have to do is change stream() to parallelStream().
 		 */
+
+		System.out.println("=====================================");
+
+		/*
+		 * Each element of intList is a 36 chars String plus its object headers, which is a lot of heap for 16 bytes of data.
+		 * UuidColumn stores the UUIDs as two long[] arrays and sorts them in place on the ForkJoinPool, in the same order than
+		 * the Strings. Values are only turned back into Strings when they are read out :
+		 */
+		UuidColumn column = UuidColumn.parse(intList);
+
+		long t4 = System.nanoTime();
+
+		column.sort();
+
+		long t5 = System.nanoTime();
+
+		long columnMillis = TimeUnit.NANOSECONDS.toMillis(t5 - t4);
+		System.out.println(String.format("Column sort took: %d ms", columnMillis));
+		System.out.println(column.getString(0).equals(intList.stream().sorted().findFirst().get()));	// true
 	}
 	
 }
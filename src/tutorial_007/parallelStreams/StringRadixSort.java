@@ -0,0 +1,245 @@
+package tutorial_007.parallelStreams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Most significant digit radix sort of Strings in their natural order (the order of String.compareTo()).
+ *
+ * A char is 16 bits wide, so each char is handled as two byte-wide digits (high byte first), plus one extra digit
+ * for "end of string" which sorts before every other one. Strings are distributed into 257 buckets per digit and
+ * each bucket is sorted on the next digit. Buckets too small to amortize a distribution pass are insertion sorted,
+ * comparing chars from the current digit only since the prefix is known to be equal.
+ *
+ * Large buckets are sorted in parallel on the current ForkJoinPool when called from one of its tasks, and on the
+ * common pool otherwise.
+ *
+ * Usage in a pipeline, in place of sorted() :
+ * "
+ 	List<String> sorted = list.parallelStream().collect(StringRadixSort.toSortedList());
+ 	StringRadixSort.sorted(list.parallelStream()).forEach(...);
+ * "
+ */
+public class StringRadixSort {
+
+	static final int RADIX = 256;
+	static final int INSERTION_SORT_THRESHOLD = 48;
+	static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	private StringRadixSort() {
+	}
+
+	public static void sort(String[] a) {
+		sort(a, 0, a.length);
+	}
+
+	public static void sort(String[] a, int fromIndex, int toIndex) {
+		checkRange(a.length, fromIndex, toIndex);
+		sort(a, new String[a.length], fromIndex, toIndex, 0);
+	}
+
+	public static void parallelSort(String[] a) {
+		parallelSort(a, 0, a.length);
+	}
+
+	public static void parallelSort(String[] a, int fromIndex, int toIndex) {
+		checkRange(a.length, fromIndex, toIndex);
+		if (toIndex - fromIndex < PARALLEL_THRESHOLD) {
+			sort(a, fromIndex, toIndex);
+			return;
+		}
+		ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+		pool.invoke(new SortTask(a, new String[a.length], fromIndex, toIndex, 0));
+	}
+
+	/**
+	 * Collects the Strings of a stream into a list sorted in natural order. The sort runs in parallel when the list is
+	 * big enough, whether the stream is parallel or not.
+	 */
+	public static Collector<String, ?, List<String>> toSortedList() {
+		return Collector.<String, List<String>, List<String>>of(
+				ArrayList::new,
+				List::add,
+				(left, right) -> {
+					left.addAll(right);
+					return left;
+				},
+				list -> {
+					String[] a = list.toArray(new String[list.size()]);
+					parallelSort(a);
+					return new ArrayList<>(Arrays.asList(a));
+				});
+	}
+
+	/**
+	 * Same result as stream.sorted(), sequential or parallel like the given stream. Nothing is consumed until a
+	 * terminal operation is invoked on the returned stream.
+	 */
+	public static Stream<String> sorted(Stream<String> stream) {
+		boolean parallel = stream.isParallel();
+		return StreamSupport.stream(() -> {
+					String[] a = stream.toArray(String[]::new);
+					if (parallel) {
+						parallelSort(a);
+					} else {
+						sort(a);
+					}
+					return Arrays.spliterator(a);
+				},
+				Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED | Spliterator.IMMUTABLE,
+				parallel)
+				.onClose(stream::close);
+	}
+
+	static void checkRange(int length, int fromIndex, int toIndex) {
+		if (fromIndex > toIndex) {
+			throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+		}
+		if (fromIndex < 0 || toIndex > length) {
+			throw new ArrayIndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + length);
+		}
+	}
+
+	/**
+	 * Digit d of s : 0 past the end of s, otherwise 1 + the high (d even) or low (d odd) byte of char d / 2.
+	 */
+	static int digit(String s, int d) {
+		int index = d >> 1;
+		if (index >= s.length()) {
+			return 0;
+		}
+		char c = s.charAt(index);
+		return 1 + ((d & 1) == 0 ? c >>> 8 : c & 0xFF);
+	}
+
+	static void sort(String[] a, String[] aux, int lo, int hi, int d) {
+		while (hi - lo > INSERTION_SORT_THRESHOLD) {
+			int[] count = distribute(a, aux, lo, hi, d);
+			if (count == null) {
+				return;	// every String ended at this digit : all equal
+			}
+			if (count.length == 0) {
+				d++;	// every String shares this digit : nothing moved
+				continue;
+			}
+			for (int r = 1; r <= RADIX; r++) {
+				sort(a, aux, lo + count[r], lo + count[r + 1], d + 1);
+			}
+			return;
+		}
+		insertionSort(a, lo, hi, d >> 1);
+	}
+
+	/**
+	 * Distributes [lo, hi) into buckets on digit d, using aux[lo, hi) as scratch space. Returns the start offset of
+	 * each bucket relative to lo (index r for digit r, plus a last end offset), an empty array if every String falls into
+	 * the same non-end bucket, or null if they all ended.
+	 */
+	static int[] distribute(String[] a, String[] aux, int lo, int hi, int d) {
+		int[] count = new int[RADIX + 2];
+		for (int i = lo; i < hi; i++) {
+			count[digit(a[i], d) + 1]++;
+		}
+		int n = hi - lo;
+		if (count[1] == n) {
+			return null;
+		}
+		for (int r = 2; r <= RADIX + 1; r++) {
+			if (count[r] == n) {
+				return new int[0];
+			}
+		}
+		for (int r = 0; r <= RADIX; r++) {
+			count[r + 1] += count[r];
+		}
+		int[] offsets = count.clone();
+		for (int i = lo; i < hi; i++) {
+			aux[lo + offsets[digit(a[i], d)]++] = a[i];
+		}
+		System.arraycopy(aux, lo, a, lo, n);
+		return count;
+	}
+
+	static void insertionSort(String[] a, int lo, int hi, int charIndex) {
+		for (int i = lo + 1; i < hi; i++) {
+			String s = a[i];
+			int j = i - 1;
+			while (j >= lo && compareFrom(a[j], s, charIndex) > 0) {
+				a[j + 1] = a[j];
+				j--;
+			}
+			a[j + 1] = s;
+		}
+	}
+
+	static int compareFrom(String s1, String s2, int charIndex) {
+		int length1 = s1.length();
+		int length2 = s2.length();
+		int limit = Math.min(length1, length2);
+		for (int i = charIndex; i < limit; i++) {
+			char c1 = s1.charAt(i);
+			char c2 = s2.charAt(i);
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return length1 - length2;
+	}
+
+	static class SortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final String[] a;
+		final String[] aux;
+		final int lo;
+		final int hi;
+		final int d;
+
+		SortTask(String[] a, String[] aux, int lo, int hi, int d) {
+			this.a = a;
+			this.aux = aux;
+			this.lo = lo;
+			this.hi = hi;
+			this.d = d;
+		}
+
+		@Override
+		protected void compute() {
+			int digit = d;
+			int[] count;
+			while ((count = distribute(a, aux, lo, hi, digit)) != null && count.length == 0) {
+				digit++;
+			}
+			if (count == null) {
+				return;
+			}
+			// Fork the large buckets first so that other workers can steal them while this one sorts the small buckets.
+			List<SortTask> tasks = new ArrayList<>();
+			for (int r = 1; r <= RADIX; r++) {
+				if (count[r + 1] - count[r] >= PARALLEL_THRESHOLD) {
+					SortTask task = new SortTask(a, aux, lo + count[r], lo + count[r + 1], digit + 1);
+					task.fork();
+					tasks.add(task);
+				}
+			}
+			for (int r = 1; r <= RADIX; r++) {
+				if (count[r + 1] - count[r] < PARALLEL_THRESHOLD) {
+					sort(a, aux, lo + count[r], lo + count[r + 1], digit + 1);
+				}
+			}
+			for (SortTask task : tasks) {
+				task.join();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,340 @@
+package tutorial_007.parallelStreams;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A growable column of UUIDs stored as two parallel long[] arrays (most and least significant bits), i.e. 16 bytes
+ * per UUID instead of a UUID or a 36 chars String object per element.
+ *
+ * The canonical String of an UUID is its 128 bits written as fixed width lowercase hexadecimal, so the String order is
+ * the unsigned order of (mostSigBits, leastSigBits). Note that this is NOT the order of UUID.compareTo(), which compares
+ * the two longs as signed values.
+ *
+ * Values are only turned into Strings when they are read out, via getString() or stream().
+ */
+public class UuidColumn {
+
+	static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+	static final int INSERTION_SORT_THRESHOLD = 32;
+
+	static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	long[] mostSigBits;
+	long[] leastSigBits;
+	int size;
+
+	public UuidColumn() {
+		this(16);
+	}
+
+	public UuidColumn(int initialCapacity) {
+		mostSigBits = new long[initialCapacity];
+		leastSigBits = new long[initialCapacity];
+	}
+
+	public static UuidColumn of(Collection<UUID> uuids) {
+		UuidColumn column = new UuidColumn(uuids.size());
+		uuids.forEach(column::add);
+		return column;
+	}
+
+	/**
+	 * Builds a column from canonical UUID Strings, e.g. the List<String> of ParallelStreamsTest.
+	 */
+	public static UuidColumn parse(Collection<String> uuids) {
+		UuidColumn column = new UuidColumn(uuids.size());
+		uuids.forEach(s -> column.add(UUID.fromString(s)));
+		return column;
+	}
+
+	public void add(UUID uuid) {
+		add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	public void add(long mostSignificantBits, long leastSignificantBits) {
+		if (size == mostSigBits.length) {
+			int capacity = Math.max(16, size + (size >> 1));
+			mostSigBits = Arrays.copyOf(mostSigBits, capacity);
+			leastSigBits = Arrays.copyOf(leastSigBits, capacity);
+		}
+		mostSigBits[size] = mostSignificantBits;
+		leastSigBits[size] = leastSignificantBits;
+		size++;
+	}
+
+	/**
+	 * Appends count zeroed slots to the column and returns the index of the first one.
+	 */
+	int grow(int count) {
+		int start = size;
+		if (start + count > mostSigBits.length) {
+			int capacity = Math.max(start + count, start + (start >> 1));
+			mostSigBits = Arrays.copyOf(mostSigBits, capacity);
+			leastSigBits = Arrays.copyOf(leastSigBits, capacity);
+		}
+		size = start + count;
+		return start;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long getMostSignificantBits(int index) {
+		checkIndex(index);
+		return mostSigBits[index];
+	}
+
+	public long getLeastSignificantBits(int index) {
+		checkIndex(index);
+		return leastSigBits[index];
+	}
+
+	public UUID get(int index) {
+		checkIndex(index);
+		return new UUID(mostSigBits[index], leastSigBits[index]);
+	}
+
+	/**
+	 * Same result as get(index).toString().
+	 */
+	public String getString(int index) {
+		checkIndex(index);
+		return toString(mostSigBits[index], leastSigBits[index]);
+	}
+
+	public Stream<UUID> uuids() {
+		return IntStream.range(0, size).mapToObj(this::get);
+	}
+
+	public Stream<String> stream() {
+		return IntStream.range(0, size).mapToObj(this::getString);
+	}
+
+	/**
+	 * Sorts the column in place in the order of the UUID Strings. Just like parallel streams, the work is split across
+	 * the current ForkJoinPool when called from one of its tasks, and across the common pool otherwise.
+	 */
+	public void sort() {
+		sort(ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool());
+	}
+
+	public void sort(ForkJoinPool pool) {
+		if (size < SEQUENTIAL_THRESHOLD) {
+			sequentialSort();
+		} else {
+			pool.invoke(new SortTask(mostSigBits, leastSigBits, 0, size - 1, depthLimit(size)));
+		}
+	}
+
+	public void sequentialSort() {
+		if (size > 1) {
+			quickSort(mostSigBits, leastSigBits, 0, size - 1, depthLimit(size));
+		}
+	}
+
+	public boolean isSorted() {
+		for (int i = 1; i < size; i++) {
+			if (compare(mostSigBits, leastSigBits, i - 1, i) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Approximate number of heap bytes retained by the column arrays.
+	 */
+	public long footprint() {
+		return 2L * (16 + 8L * mostSigBits.length);
+	}
+
+	void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Same result as new UUID(msb, lsb).toString().
+	 */
+	static String toString(long msb, long lsb) {
+		char[] chars = new char[36];
+		hex(msb >>> 32, chars, 0, 8);
+		chars[8] = '-';
+		hex(msb >>> 16, chars, 9, 4);
+		chars[13] = '-';
+		hex(msb, chars, 14, 4);
+		chars[18] = '-';
+		hex(lsb >>> 48, chars, 19, 4);
+		chars[23] = '-';
+		hex(lsb, chars, 24, 12);
+		return new String(chars);
+	}
+
+	static void hex(long value, char[] chars, int offset, int digits) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			chars[i] = HEX_DIGITS[(int) (value & 0xF)];
+			value >>>= 4;
+		}
+	}
+
+	static int depthLimit(int length) {
+		return 2 * (32 - Integer.numberOfLeadingZeros(length));
+	}
+
+	static int compare(long[] msb, long[] lsb, int i, int j) {
+		int c = Long.compareUnsigned(msb[i], msb[j]);
+		return c != 0 ? c : Long.compareUnsigned(lsb[i], lsb[j]);
+	}
+
+	static int compare(long[] msb, long[] lsb, int i, long pivotMsb, long pivotLsb) {
+		int c = Long.compareUnsigned(msb[i], pivotMsb);
+		return c != 0 ? c : Long.compareUnsigned(lsb[i], pivotLsb);
+	}
+
+	static void swap(long[] msb, long[] lsb, int i, int j) {
+		long m = msb[i];
+		msb[i] = msb[j];
+		msb[j] = m;
+		long l = lsb[i];
+		lsb[i] = lsb[j];
+		lsb[j] = l;
+	}
+
+	/**
+	 * Hoare partition of [low, high] around the median of three. Returns j such that every element of [low, j] is
+	 * lower than or equal to every element of [j + 1, high].
+	 */
+	static int partition(long[] msb, long[] lsb, int low, int high) {
+		int middle = (low + high) >>> 1;
+		if (compare(msb, lsb, middle, low) < 0) {
+			swap(msb, lsb, middle, low);
+		}
+		if (compare(msb, lsb, high, low) < 0) {
+			swap(msb, lsb, high, low);
+		}
+		if (compare(msb, lsb, high, middle) < 0) {
+			swap(msb, lsb, high, middle);
+		}
+		long pivotMsb = msb[middle];
+		long pivotLsb = lsb[middle];
+		int i = low - 1;
+		int j = high + 1;
+		while (true) {
+			do {
+				i++;
+			} while (compare(msb, lsb, i, pivotMsb, pivotLsb) < 0);
+			do {
+				j--;
+			} while (compare(msb, lsb, j, pivotMsb, pivotLsb) > 0);
+			if (i >= j) {
+				return j;
+			}
+			swap(msb, lsb, i, j);
+		}
+	}
+
+	static void quickSort(long[] msb, long[] lsb, int low, int high, int depth) {
+		while (high - low >= INSERTION_SORT_THRESHOLD) {
+			if (depth-- == 0) {
+				heapSort(msb, lsb, low, high);
+				return;
+			}
+			int p = partition(msb, lsb, low, high);
+			// Recurse into the smaller half and loop on the larger one to bound the stack depth.
+			if (p - low < high - p) {
+				quickSort(msb, lsb, low, p, depth);
+				low = p + 1;
+			} else {
+				quickSort(msb, lsb, p + 1, high, depth);
+				high = p;
+			}
+		}
+		insertionSort(msb, lsb, low, high);
+	}
+
+	static void insertionSort(long[] msb, long[] lsb, int low, int high) {
+		for (int i = low + 1; i <= high; i++) {
+			long m = msb[i];
+			long l = lsb[i];
+			int j = i - 1;
+			while (j >= low && compare(msb, lsb, j, m, l) > 0) {
+				msb[j + 1] = msb[j];
+				lsb[j + 1] = lsb[j];
+				j--;
+			}
+			msb[j + 1] = m;
+			lsb[j + 1] = l;
+		}
+	}
+
+	static void heapSort(long[] msb, long[] lsb, int low, int high) {
+		int n = high - low + 1;
+		for (int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(msb, lsb, low, i, n);
+		}
+		for (int end = n - 1; end > 0; end--) {
+			swap(msb, lsb, low, low + end);
+			siftDown(msb, lsb, low, 0, end);
+		}
+	}
+
+	static void siftDown(long[] msb, long[] lsb, int offset, int root, int n) {
+		while (true) {
+			int child = 2 * root + 1;
+			if (child >= n) {
+				return;
+			}
+			if (child + 1 < n && compare(msb, lsb, offset + child, offset + child + 1) < 0) {
+				child++;
+			}
+			if (compare(msb, lsb, offset + root, offset + child) >= 0) {
+				return;
+			}
+			swap(msb, lsb, offset + root, offset + child);
+			root = child;
+		}
+	}
+
+	/**
+	 * Partitions its range then sorts both halves in parallel. Small ranges are sorted sequentially.
+	 */
+	static class SortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final long[] msb;
+		final long[] lsb;
+		final int low;
+		final int high;
+		final int depth;
+
+		SortTask(long[] msb, long[] lsb, int low, int high, int depth) {
+			this.msb = msb;
+			this.lsb = lsb;
+			this.low = low;
+			this.high = high;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low < SEQUENTIAL_THRESHOLD || depth == 0) {
+				quickSort(msb, lsb, low, high, depth);
+				return;
+			}
+			int p = partition(msb, lsb, low, high);
+			invokeAll(new SortTask(msb, lsb, low, p, depth - 1),
+					new SortTask(msb, lsb, p + 1, high, depth - 1));
+		}
+	}
+
+}
@@ -0,0 +1,286 @@
+package tutorial_007.parallelStreams;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates random (version 4) UUIDs in bulk, in parallel across the cores.
+ *
+ * UUID.randomUUID() draws its 16 bytes from a single shared SecureRandom, so a loop generating millions of UUIDs from
+ * several threads is serialised on that SecureRandom. Two modes are available instead :
+ * - splittable() : non-cryptographic, each fork/join task draws from its own SplittableRandom obtained via split().
+ *   Giving a seed makes the generated values reproducible.
+ * - secure() : cryptographic, each fork/join task draws from its own SHA1PRNG SecureRandom, seeded with SEED_BYTES
+ *   drawn from the SecureRandom of its parent task, the root one from the SecureRandom of the generator. The tasks
+ *   don't share the synchronized nextBytes() of a SecureRandom, so they scale with the cores, and each task draws the
+ *   entropy of a whole batch of UUIDs with a single nextBytes() call. The trade-off : the UUIDs are only as
+ *   unpredictable as SHA1PRNG and the 256 bits of its seed, rather than as the algorithm of the given SecureRandom,
+ *   and every task pays the creation and seeding of a SecureRandom, once per leaf of at least DEFAULT_LEAF_SIZE UUIDs.
+ *
+ * Generation runs on the current ForkJoinPool when called from one of its tasks, and on the common pool otherwise.
+ */
+public abstract class UuidGenerator {
+
+	static final int DEFAULT_LEAF_SIZE = 1 << 12;
+	static final int DEFAULT_BATCH_SIZE = 1 << 10;
+	static final int SEED_BYTES = 32;
+	static final String TASK_ALGORITHM = "SHA1PRNG";	// available in every JDK, seeded only by setSeed() before its first use
+
+	final int leafSize;
+
+	UuidGenerator(int leafSize) {
+		if (leafSize <= 0) {
+			throw new IllegalArgumentException("leafSize must be positive: " + leafSize);
+		}
+		this.leafSize = leafSize;
+	}
+
+	public static UuidGenerator splittable() {
+		return new Splittable(new SplittableRandom(), DEFAULT_LEAF_SIZE);
+	}
+
+	public static UuidGenerator splittable(long seed) {
+		return new Splittable(new SplittableRandom(seed), DEFAULT_LEAF_SIZE);
+	}
+
+	/**
+	 * @param leafSize number of UUIDs generated by a single fork/join task.
+	 */
+	public static UuidGenerator splittable(long seed, int leafSize) {
+		return new Splittable(new SplittableRandom(seed), leafSize);
+	}
+
+	public static UuidGenerator secure() {
+		return new Secure(new SecureRandom(), DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param batchSize number of UUIDs whose entropy is drawn by a single nextBytes() call.
+	 */
+	public static UuidGenerator secure(SecureRandom random, int batchSize) {
+		return new Secure(random, batchSize);
+	}
+
+	/**
+	 * Appends count random UUIDs to the column.
+	 */
+	public void fill(UuidColumn column, int count) {
+		checkCount(count);
+		int start = column.grow(count);
+		long[] msb = column.mostSigBits;
+		long[] lsb = column.leastSigBits;
+		generate(count, (i, m, l) -> {
+			msb[start + i] = m;
+			lsb[start + i] = l;
+		});
+	}
+
+	/**
+	 * Adds count random UUID Strings to the collection, e.g. the List<String> of ParallelStreamsTest.
+	 */
+	public void fill(Collection<? super String> target, int count) {
+		target.addAll(Arrays.asList(generateStrings(count)));
+	}
+
+	public UuidColumn generateColumn(int count) {
+		UuidColumn column = new UuidColumn(count);
+		fill(column, count);
+		return column;
+	}
+
+	public UUID[] generate(int count) {
+		UUID[] uuids = new UUID[count];
+		generate(count, (i, m, l) -> uuids[i] = new UUID(m, l));
+		return uuids;
+	}
+
+	public String[] generateStrings(int count) {
+		String[] strings = new String[count];
+		generate(count, (i, m, l) -> strings[i] = UuidColumn.toString(m, l));
+		return strings;
+	}
+
+	void generate(int count, Sink sink) {
+		checkCount(count);
+		ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+		pool.invoke(new GenerateTask(root(), sink, 0, count));
+	}
+
+	static void checkCount(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("count must not be negative: " + count);
+		}
+	}
+
+	/**
+	 * Source of random bits of the root task.
+	 */
+	abstract Source root();
+
+	static long version4MostSigBits(long bits) {
+		return (bits & ~0xF000L) | 0x4000L;	// version 4
+	}
+
+	static long version4LeastSigBits(long bits) {
+		return (bits & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;	// IETF variant
+	}
+
+	@FunctionalInterface
+	interface Sink {
+		void accept(int index, long mostSigBits, long leastSigBits);
+	}
+
+	/**
+	 * Random bits used by a single task. A source is never used by two threads at the same time : split() is called
+	 * by the parent task before forking and the returned source is handed to the forked task.
+	 */
+	interface Source {
+		Source split();
+
+		void generate(Sink sink, int from, int to);
+	}
+
+	class GenerateTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final Source source;
+		final Sink sink;
+		final int from;
+		final int to;
+
+		GenerateTask(Source source, Sink sink, int from, int to) {
+			this.source = source;
+			this.sink = sink;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= leafSize) {
+				source.generate(sink, from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			Source right = source.split();
+			invokeAll(new GenerateTask(source, sink, from, middle), new GenerateTask(right, sink, middle, to));
+		}
+	}
+
+	static class Splittable extends UuidGenerator {
+
+		final SplittableRandom random;
+
+		Splittable(SplittableRandom random, int leafSize) {
+			super(leafSize);
+			this.random = random;
+		}
+
+		@Override
+		synchronized Source root() {
+			return new SplittableSource(random.split());
+		}
+	}
+
+	static class SplittableSource implements Source {
+
+		final SplittableRandom random;
+
+		SplittableSource(SplittableRandom random) {
+			this.random = random;
+		}
+
+		@Override
+		public Source split() {
+			return new SplittableSource(random.split());
+		}
+
+		@Override
+		public void generate(Sink sink, int from, int to) {
+			for (int i = from; i < to; i++) {
+				sink.accept(i, version4MostSigBits(random.nextLong()), version4LeastSigBits(random.nextLong()));
+			}
+		}
+	}
+
+	static class Secure extends UuidGenerator {
+
+		final SecureRandom random;
+		final int batchSize;
+
+		Secure(SecureRandom random, int batchSize) {
+			super(Math.max(batchSize, DEFAULT_LEAF_SIZE));
+			if (batchSize <= 0) {
+				throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+			}
+			this.random = random;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		Source root() {
+			return new SecureSource(taskRandom(random), batchSize);
+		}
+
+		/**
+		 * A SecureRandom for a single task, seeded from the one of its parent.
+		 */
+		static SecureRandom taskRandom(SecureRandom parent) {
+			byte[] seed = new byte[SEED_BYTES];
+			parent.nextBytes(seed);
+			try {
+				SecureRandom random = SecureRandom.getInstance(TASK_ALGORITHM);
+				random.setSeed(seed);
+				return random;
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	static class SecureSource implements Source {
+
+		final SecureRandom random;
+		final int batchSize;
+
+		SecureSource(SecureRandom random, int batchSize) {
+			this.random = random;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		public Source split() {
+			return new SecureSource(Secure.taskRandom(random), batchSize);
+		}
+
+		@Override
+		public void generate(Sink sink, int from, int to) {
+			byte[] bytes = new byte[16 * Math.min(batchSize, to - from)];
+			for (int batchStart = from; batchStart < to; batchStart += batchSize) {
+				int batchEnd = Math.min(batchStart + batchSize, to);
+				random.nextBytes(bytes);
+				int offset = 0;
+				for (int i = batchStart; i < batchEnd; i++, offset += 16) {
+					sink.accept(i, version4MostSigBits(toLong(bytes, offset)), version4LeastSigBits(toLong(bytes, offset + 8)));
+				}
+			}
+		}
+
+		static long toLong(byte[] bytes, int offset) {
+			long value = 0;
+			for (int i = offset; i < offset + 8; i++) {
+				value = (value << 8) | (bytes[i] & 0xFF);
+			}
+			return value;
+		}
+	}
+
+}
@@ -0,0 +1,698 @@
+package tutorial_008.map;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * A map from int keys to objects, where MapTest's HashMap<Integer, String> stores every entry as a Node holding a boxed
+ * Integer key : about 48 bytes per entry plus its table slot, and an Integer allocated by each get(i) or put(i, v) of a
+ * key outside the -128..127 cache.
+ *
+ * Here the keys are stored in a flat int[] and the values in a parallel Object[], with open addressing and linear
+ * probing, so an entry costs the 8 bytes of its two slots divided by the load factor. The int overloads of get, put,
+ * putIfAbsent, remove, replace, getOrDefault, computeIfAbsent, computeIfPresent, compute and merge don't allocate
+ * anything, and follow the Map default-method contracts, including the removal of the entry when the function returns
+ * null. The literal keys of MapTest pick them with no change :
+ * "
+ 	IntObjectMap<String> map = new IntObjectMap<>();
+ 	map.putIfAbsent(3, "val3");
+ 	map.computeIfPresent(3, (num, val) -> val + num);	// num is an int
+ 	map.computeIfPresent(9, (num, val) -> null);	// removes 9
+ 	map.merge(9, "concat", (value, newValue) -> value.concat(newValue));
+ 	map.forEachEntry((key, val) -> System.out.println(key + "=" + val));
+ * "
+ * The class is also a Map<Integer, V> for the code which expects one, the boxed methods delegating to the int ones.
+ * Null values are not allowed, like in a ConcurrentHashMap, so a null returned by get() always means "absent". Like
+ * HashMap it is not thread-safe, and a function passed to compute* or merge must not modify the map.
+ */
+public class IntObjectMap<V> extends AbstractMap<Integer, V> {
+
+	static final int FREE = 0;	// key of the empty slots : the entry of key 0 is kept aside
+	static final float LOAD_FACTOR = 0.75f;
+	static final int MAX_CAPACITY = 1 << 30;
+
+	@FunctionalInterface
+	public interface IntObjectFunction<V, R> {
+		R apply(int key, V value);
+	}
+
+	@FunctionalInterface
+	public interface IntObjectConsumer<V> {
+		void accept(int key, V value);
+	}
+
+	int[] keys;
+	Object[] values;
+	int mask;
+	int threshold;
+	int size;	// entries in the slots, the zero key excluded
+	Object zeroValue;	// value of the key 0, or null
+	int modCount;
+
+	public IntObjectMap() {
+		this(16);
+	}
+
+	public IntObjectMap(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException(Integer.toString(expectedSize));
+		}
+		allocate(capacityFor(expectedSize));
+	}
+
+	static int capacityFor(int expectedSize) {
+		long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+		if (needed > MAX_CAPACITY) {
+			return MAX_CAPACITY;
+		}
+		return Math.max(4, Integer.highestOneBit((int) needed - 1) << 1);
+	}
+
+	void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		threshold = capacity == MAX_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * Fibonacci hashing : the multiplication spreads consecutive keys, the high bits are folded onto the low ones.
+	 */
+	int slot(int key) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * The slot holding key, or -1. Not for the key 0.
+	 */
+	int find(int key) {
+		int[] keys = this.keys;
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			int k = keys[i];
+			if (k == key) {
+				return i;
+			}
+			if (k == FREE) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * The slot holding key, or the free slot where it would be inserted as ~slot. Not for the key 0.
+	 */
+	int findOrFree(int key) {
+		int[] keys = this.keys;
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			int k = keys[i];
+			if (k == key) {
+				return i;
+			}
+			if (k == FREE) {
+				return ~i;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	V valueAt(int slot) {
+		return (V) values[slot];
+	}
+
+	/**
+	 * Stores a new entry in the free slot ~free found by findOrFree(), growing the table past the threshold.
+	 */
+	void insert(int free, int key, V value) {
+		keys[free] = key;
+		values[free] = value;
+		modCount++;
+		if (++size > threshold) {
+			grow();
+		}
+	}
+
+	void grow() {
+		if (keys.length == MAX_CAPACITY) {
+			throw new IllegalStateException("IntObjectMap full: " + size + " entries");
+		}
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(oldKeys.length * 2);
+		for (int i = 0; i < oldKeys.length; i++) {
+			int key = oldKeys[i];
+			if (key != FREE) {
+				int j = slot(key);
+				while (keys[j] != FREE) {
+					j = (j + 1) & mask;
+				}
+				keys[j] = key;
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Empties a slot by shifting back the following entries of its probe sequence, so that no tombstone is needed. An
+	 * entry moved from a slot the iterator hasn't reached yet to one it already passed is handed to the iterator.
+	 */
+	void removeAt(int slot, EntryIterator iterator) {
+		int[] keys = this.keys;
+		Object[] values = this.values;
+		int hole = slot;
+		for (int i = (hole + 1) & mask;; i = (i + 1) & mask) {
+			int key = keys[i];
+			if (key == FREE) {
+				break;
+			}
+			int home = slot(key);
+			// the entry can fill the hole if its home slot isn't cyclically in (hole, i]
+			if (hole <= i ? (home <= hole || home > i) : (home <= hole && home > i)) {
+				if (iterator != null && i < iterator.slot && hole >= iterator.slot) {
+					iterator.passed(key, values[i]);
+				}
+				keys[hole] = key;
+				values[hole] = values[i];
+				hole = i;
+			}
+		}
+		keys[hole] = FREE;
+		values[hole] = null;
+		size--;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return zeroValue == null ? size : size + 1;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean containsKey(int key) {
+		return key == FREE ? zeroValue != null : find(key) >= 0;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		if (value == null) {
+			return false;
+		}
+		if (value.equals(zeroValue)) {
+			return true;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != FREE && value.equals(values[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		if (key == FREE) {
+			return (V) zeroValue;
+		}
+		int slot = find(key);
+		return slot < 0 ? null : valueAt(slot);
+	}
+
+	public V getOrDefault(int key, V defaultValue) {
+		V value = get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		Objects.requireNonNull(value);
+		if (key == FREE) {
+			V old = (V) zeroValue;
+			zeroValue = value;
+			if (old == null) {
+				modCount++;
+			}
+			return old;
+		}
+		int slot = findOrFree(key);
+		if (slot >= 0) {
+			V old = valueAt(slot);
+			values[slot] = value;
+			return old;
+		}
+		insert(~slot, key, value);
+		return null;
+	}
+
+	public V putIfAbsent(int key, V value) {
+		Objects.requireNonNull(value);
+		if (key == FREE) {
+			V old = get(FREE);
+			if (old == null) {
+				zeroValue = value;
+				modCount++;
+			}
+			return old;
+		}
+		int slot = findOrFree(key);
+		if (slot >= 0) {
+			return valueAt(slot);
+		}
+		insert(~slot, key, value);
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		if (key == FREE) {
+			V old = (V) zeroValue;
+			if (old != null) {
+				zeroValue = null;
+				modCount++;
+			}
+			return old;
+		}
+		int slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+		V old = valueAt(slot);
+		removeAt(slot, null);
+		return old;
+	}
+
+	/**
+	 * Removes the entry only if key is currently mapped to value.
+	 */
+	public boolean remove(int key, Object value) {
+		V current = get(key);
+		if (current == null || !current.equals(value)) {
+			return false;
+		}
+		remove(key);
+		return true;
+	}
+
+	public V replace(int key, V value) {
+		Objects.requireNonNull(value);
+		return containsKey(key) ? put(key, value) : null;
+	}
+
+	public boolean replace(int key, V oldValue, V newValue) {
+		Objects.requireNonNull(newValue);
+		V current = get(key);
+		if (current == null || !current.equals(oldValue)) {
+			return false;
+		}
+		put(key, newValue);
+		return true;
+	}
+
+	/**
+	 * Stores the value computed from the key if the key is absent, unless it is null.
+	 */
+	public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+		Objects.requireNonNull(mappingFunction);
+		if (key == FREE) {
+			V value = get(FREE);
+			if (value == null) {
+				value = mappingFunction.apply(key);
+				if (value != null) {
+					put(FREE, value);
+				}
+			}
+			return value;
+		}
+		int slot = findOrFree(key);
+		if (slot >= 0) {
+			return valueAt(slot);
+		}
+		int expectedModCount = modCount;
+		V value = mappingFunction.apply(key);
+		checkModCount(expectedModCount);
+		if (value != null) {
+			insert(~slot, key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Replaces the value of a present key by the one computed from the key and the value, or removes the entry if the
+	 * function returns null.
+	 */
+	public V computeIfPresent(int key, IntObjectFunction<? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+		if (key == FREE) {
+			V value = get(FREE);
+			return value == null ? null : storeZero(remappingFunction.apply(key, value));
+		}
+		int slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+		int expectedModCount = modCount;
+		V value = remappingFunction.apply(key, valueAt(slot));
+		checkModCount(expectedModCount);
+		return store(slot, value);
+	}
+
+	/**
+	 * Maps the key to the value computed from the key and its current value (null if absent), or removes the entry if
+	 * the function returns null.
+	 */
+	public V compute(int key, IntObjectFunction<? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+		if (key == FREE) {
+			return storeZero(remappingFunction.apply(key, get(FREE)));
+		}
+		int slot = findOrFree(key);
+		int expectedModCount = modCount;
+		V value = remappingFunction.apply(key, slot >= 0 ? valueAt(slot) : null);
+		checkModCount(expectedModCount);
+		if (slot >= 0) {
+			return store(slot, value);
+		}
+		if (value != null) {
+			insert(~slot, key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Stores value if the key is absent, otherwise the merge of the current value and value, the entry being removed
+	 * if the function returns null.
+	 */
+	public V merge(int key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(value);
+		Objects.requireNonNull(remappingFunction);
+		if (key == FREE) {
+			V old = get(FREE);
+			return storeZero(old == null ? value : remappingFunction.apply(old, value));
+		}
+		int slot = findOrFree(key);
+		if (slot < 0) {
+			insert(~slot, key, value);
+			return value;
+		}
+		int expectedModCount = modCount;
+		V merged = remappingFunction.apply(valueAt(slot), value);
+		checkModCount(expectedModCount);
+		return store(slot, merged);
+	}
+
+	/**
+	 * Sets the value of an occupied slot, or empties it if the value is null.
+	 */
+	V store(int slot, V value) {
+		if (value == null) {
+			removeAt(slot, null);
+		} else {
+			values[slot] = value;
+		}
+		return value;
+	}
+
+	V storeZero(V value) {
+		if (value != zeroValue) {
+			zeroValue = value;
+			modCount++;
+		}
+		return value;
+	}
+
+	void checkModCount(int expectedModCount) {
+		if (modCount != expectedModCount) {
+			throw new ConcurrentModificationException("the function modified the map");
+		}
+	}
+
+	/**
+	 * forEach() without boxing the keys : named differently since a (key, value) lambda would fit both.
+	 */
+	public void forEachEntry(IntObjectConsumer<? super V> action) {
+		int expectedModCount = modCount;
+		if (zeroValue != null) {
+			action.accept(FREE, get(FREE));
+		}
+		int[] keys = this.keys;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != FREE) {
+				action.accept(keys[i], valueAt(i));
+			}
+		}
+		checkModCount(expectedModCount);
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, FREE);
+		Arrays.fill(values, null);
+		size = 0;
+		zeroValue = null;
+		modCount++;
+	}
+
+	// Map<Integer, V> methods, delegating to the int ones
+
+	@Override
+	public V get(Object key) {
+		return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof Integer && containsKey(((Integer) key).intValue());
+	}
+
+	@Override
+	public V getOrDefault(Object key, V defaultValue) {
+		return key instanceof Integer ? getOrDefault(((Integer) key).intValue(), defaultValue) : defaultValue;
+	}
+
+	@Override
+	public V put(Integer key, V value) {
+		return put(key.intValue(), value);
+	}
+
+	@Override
+	public V putIfAbsent(Integer key, V value) {
+		return putIfAbsent(key.intValue(), value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		return key instanceof Integer && remove(((Integer) key).intValue(), value);
+	}
+
+	@Override
+	public V replace(Integer key, V value) {
+		return replace(key.intValue(), value);
+	}
+
+	@Override
+	public boolean replace(Integer key, V oldValue, V newValue) {
+		return replace(key.intValue(), oldValue, newValue);
+	}
+
+	@Override
+	public V computeIfAbsent(Integer key, Function<? super Integer, ? extends V> mappingFunction) {
+		Objects.requireNonNull(mappingFunction);
+		return computeIfAbsent(key.intValue(), k -> mappingFunction.apply(k));
+	}
+
+	@Override
+	public V computeIfPresent(Integer key, BiFunction<? super Integer, ? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+		return computeIfPresent(key.intValue(), (k, v) -> remappingFunction.apply(k, v));
+	}
+
+	@Override
+	public V compute(Integer key, BiFunction<? super Integer, ? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+		return compute(key.intValue(), (k, v) -> remappingFunction.apply(k, v));
+	}
+
+	@Override
+	public V merge(Integer key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		return merge(key.intValue(), value, remappingFunction);
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super Integer, ? super V> action) {
+		Objects.requireNonNull(action);
+		forEachEntry(action::accept);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super Integer, ? super V, ? extends V> function) {
+		Objects.requireNonNull(function);
+		int expectedModCount = modCount;
+		if (zeroValue != null) {
+			zeroValue = Objects.requireNonNull(function.apply(FREE, get(FREE)));
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != FREE) {
+				values[i] = Objects.requireNonNull(function.apply(keys[i], valueAt(i)));
+			}
+		}
+		checkModCount(expectedModCount);
+	}
+
+	@Override
+	public Set<Map.Entry<Integer, V>> entrySet() {
+		return new AbstractSet<Map.Entry<Integer, V>>() {
+
+			@Override
+			public Iterator<Map.Entry<Integer, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return IntObjectMap.this.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				if (!(o instanceof Map.Entry)) {
+					return false;
+				}
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+				V value = get(entry.getKey());
+				return value != null && value.equals(entry.getValue());
+			}
+
+			@Override
+			public boolean remove(Object o) {
+				return o instanceof Map.Entry && IntObjectMap.this.remove(((Map.Entry<?, ?>) o).getKey(),
+						((Map.Entry<?, ?>) o).getValue());
+			}
+
+			@Override
+			public void clear() {
+				IntObjectMap.this.clear();
+			}
+		};
+	}
+
+	/**
+	 * Entry whose setValue() writes through to the map.
+	 */
+	class Entry extends AbstractMap.SimpleEntry<Integer, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		Entry(int key, V value) {
+			super(key, value);
+		}
+
+		@Override
+		public V setValue(V value) {
+			put(getKey().intValue(), value);
+			return super.setValue(value);
+		}
+	}
+
+	/**
+	 * Walks the slots downwards, after the key 0. Walking downwards, a removal only moves an entry to a passed slot when
+	 * its probe sequence wrapped around the end of the table : such entries are returned at the end from a side list.
+	 */
+	class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+
+		int slot = keys.length;	// slots >= slot have been returned
+		boolean zeroPending = zeroValue != null;
+		List<Entry> wrapped;
+		int next = -1;	// slot of the next entry, or -1 to search it
+		Entry last;
+		int lastSlot = -1;	// slot of the last entry, or -1 if it was the key 0 or came from the side list
+		int expectedModCount = modCount;
+
+		void passed(int key, Object value) {
+			if (wrapped == null) {
+				wrapped = new ArrayList<>();
+			}
+			@SuppressWarnings("unchecked")
+			V v = (V) value;
+			wrapped.add(new Entry(key, v));
+		}
+
+		int nextSlot() {
+			if (next < 0) {
+				next = slot - 1;
+				while (next >= 0 && keys[next] == FREE) {
+					next--;
+				}
+			}
+			return next;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return zeroPending || nextSlot() >= 0 || (wrapped != null && !wrapped.isEmpty());
+		}
+
+		@Override
+		public Map.Entry<Integer, V> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (zeroPending) {
+				zeroPending = false;
+				lastSlot = -1;
+				return last = new Entry(FREE, get(FREE));
+			}
+			int i = nextSlot();
+			if (i >= 0) {
+				slot = i;
+				next = -1;
+				lastSlot = i;
+				return last = new Entry(keys[i], valueAt(i));
+			}
+			if (wrapped != null && !wrapped.isEmpty()) {
+				lastSlot = -1;
+				return last = wrapped.remove(wrapped.size() - 1);
+			}
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public void remove() {
+			if (last == null) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (lastSlot >= 0) {
+				removeAt(lastSlot, this);
+			} else {
+				IntObjectMap.this.remove(last.getKey().intValue());
+			}
+			last = null;
+			next = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+}
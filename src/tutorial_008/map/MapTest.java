@@ -1,11 +1,14 @@
 package tutorial_008.map;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
 public class MapTest {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 		/*
 		 * Maps doesn't support streams. Instead maps now support various new and useful methods 
 		 * for doing common tasks. For example :
@@ -73,6 +76,63 @@ public class MapTest {
 		
 		map.merge(9, "concat", (value, newValue) -> value.concat(newValue));
 		System.out.println(map.get(9)); // valNew9concat
+		
+		/*
+		 * Each concat() above copies the whole value, so appending n times to the same key costs O(n²). With Rope values 
+		 * an append only links the fragment, and the chars are copied once, when the value is read :
+		 */
+		Map<Integer, Rope> ropes = new HashMap<>();
+		ropes.merge(9, Rope.of("valNew9"), Rope::concat);
+		ropes.merge(9, Rope.of("concat"), Rope::concat);
+		System.out.println(ropes.get(9)); // valNew9concat
+		
+		System.out.println("=====================================");
+		
+		/*
+		 * Every key of this HashMap<Integer, String> is a boxed Integer held by a Node. IntObjectMap keeps the keys in 
+		 * an int[] with open addressing, and the same calls, with int keys, follow the same rules without allocating :
+		 */
+		IntObjectMap<String> intMap = new IntObjectMap<>();
+		for (int i = 0; i < 10; i++) {
+			intMap.putIfAbsent(i, "val" + i);
+		}
+		intMap.computeIfPresent(3, (num, val) -> val + num);
+		System.out.println(intMap.get(3)); // val33
+		
+		intMap.computeIfPresent(9, (num, val) -> null);
+		System.out.println(intMap.containsKey(9)); // false
+		
+		intMap.remove(3, "val33");
+		System.out.println(intMap.getOrDefault(3, "not found")); // not found
+		
+		intMap.merge(9, "valNew9", (value, newValue) -> value.concat(newValue));
+		intMap.merge(9, "concat", (value, newValue) -> value.concat(newValue));
+		System.out.println(intMap.get(9)); // valNew9concat
+		
+		Map<Integer, String> boxed = intMap; // it is also a Map<Integer, String>
+		System.out.println(boxed.equals(map)); // false : 23 is only in map
+		
+		System.out.println("=====================================");
+		
+		/*
+		 * Both maps above live on the heap and are gone when the JVM stops. MappedMap stores its entries in memory-mapped 
+		 * files, so they are available again as soon as the file is reopened, without being read into the heap :
+		 */
+		Path file = Files.createTempFile("map-test-", ".map");
+		try (MappedMap mapped = MappedMap.open(file)) {
+			for (int i = 0; i < 10; i++) {
+				mapped.putIfAbsent("key" + i, "val" + i);
+			}
+			mapped.compute("key3", (key, val) -> val + key);
+			mapped.merge("key9", "concat", (value, newValue) -> value.concat(newValue));
+		}
+		try (MappedMap mapped = MappedMap.open(file)) {
+			System.out.println(mapped.get("key3")); // val3key3
+			System.out.println(mapped.get("key9")); // val9concat
+			System.out.println(mapped.size()); // 10
+		}
+		Files.delete(file);
+		Files.delete(file.resolveSibling(file.getFileName() + ".index"));
 	}
 
 }
@@ -0,0 +1,940 @@
+package tutorial_008.map;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A Map<String, String> whose entries live in memory-mapped files instead of the heap, where the maps of MapTest and
+ * _04_ConcurrentMapTest are lost on restart and make every GC walk millions of Nodes and Strings.
+ *
+ * Two files are mapped with FileChannel.map() :
+ * - the data file, an append-only log of records (key length, value length, key chars, value chars). A put appends a
+ *   record, a removal appends a tombstone (value length -1). A record is never modified, and the older records of a key
+ *   are dead bytes.
+ * - the index file "<data file>.index", an open-addressing hash table whose slots hold the offset of the live record of
+ *   a key and the hash of the key. A lookup compares the key with the chars of the record in place : only the returned
+ *   value is copied into the heap.
+ * Reopening maps the two files again, so the entries are available at once without reading them.
+ * "
+ 	try (MappedMap map = MappedMap.open(Paths.get("cache.map"))) {
+ 		map.putIfAbsent("foo", "bar");
+ 		map.merge("foo", "baz", String::concat);	// barbaz
+ 	}
+ 	try (MappedMap map = MappedMap.open(Paths.get("cache.map"))) {
+ 		map.get("foo");	// barbaz
+ 	}
+ * "
+ * When the dead bytes outweigh the live ones, a background thread copies the live records into a new data file, under
+ * the read lock so that readers go on, then swaps the files under the write lock. Both files carry a generation number :
+ * if a crash leaves an index that doesn't belong to the data file, the index is rebuilt from the log on open. If a
+ * background compaction fails, the map goes on with the current data file and schedules no other one : the failure is
+ * thrown, wrapped in an IOException, by the next compact() or close().
+ *
+ * All the methods are thread-safe, through a read/write lock, and compute*, merge and putIfAbsent are atomic. Iterators
+ * see the entries of the moment they were created. Changes reach the disk when the OS writes the mapped pages back, or
+ * at flush() and close() : there is no write-ahead log, so a crash of the OS between two flush() calls may lose the
+ * last changes. Each file is mapped as a single buffer, so the data file is limited to 2 GB.
+ */
+public class MappedMap extends AbstractMap<String, String> implements ConcurrentMap<String, String>, Closeable {
+
+	static final int DATA_MAGIC = 0x4D4D4150;	// "MMAP"
+	static final int INDEX_MAGIC = 0x4D4D4958;	// "MMIX"
+	static final int VERSION = 1;
+
+	// data header : magic, version, generation, unused, end of the log (long), dead bytes (long)
+	static final int DATA_HEADER = 32;
+	static final int DATA_GENERATION = 8;
+	static final int DATA_END = 16;
+	static final int DATA_DEAD = 24;
+
+	// index header : magic, version, generation, capacity, size ; then slots of record offset (long), key hash (int), unused
+	static final int INDEX_HEADER = 32;
+	static final int INDEX_GENERATION = 8;
+	static final int INDEX_CAPACITY = 12;
+	static final int INDEX_SIZE = 16;
+	static final int SLOT = 16;
+	static final long FREE = 0;	// record offset of the empty slots : records start after the header
+
+	static final int RECORD_HEADER = 8;
+	static final int TOMBSTONE = -1;
+	static final int MIN_DATA_SIZE = 1 << 20;
+	static final long MAX_DATA_SIZE = Integer.MAX_VALUE;
+	static final int MIN_CAPACITY = 1 << 10;
+	static final int MAX_CAPACITY = 1 << 26;	// INDEX_HEADER + capacity * SLOT must stay a mappable size
+	static final float LOAD_FACTOR = 0.7f;
+	static final long MIN_DEAD_BYTES_TO_COMPACT = 1 << 20;
+
+	final Path dataPath;
+	final Path indexPath;
+	final Path compactPath;
+	final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	FileChannel dataChannel;
+	MappedByteBuffer data;
+	FileChannel indexChannel;
+	MappedByteBuffer index;
+	int capacity;
+	int mask;
+	int size;
+	long end;
+	long deadBytes;
+	int generation;
+	int modCount;
+	boolean closed;
+
+	ExecutorService compactor;
+	volatile boolean compacting;
+	final AtomicReference<Exception> compactionFailure = new AtomicReference<>();	// of the background compaction
+
+	MappedMap(Path dataPath) {
+		this.dataPath = dataPath;
+		this.indexPath = dataPath.resolveSibling(dataPath.getFileName() + ".index");
+		this.compactPath = dataPath.resolveSibling(dataPath.getFileName() + ".compact");
+	}
+
+	/**
+	 * Opens the map stored in path, creating it if the file doesn't exist.
+	 */
+	public static MappedMap open(Path path) throws IOException {
+		MappedMap map = new MappedMap(path.toAbsolutePath());
+		try {
+			map.openFiles();
+		} catch (IOException | RuntimeException e) {
+			map.closeChannels();
+			throw e;
+		}
+		return map;
+	}
+
+	void openFiles() throws IOException {
+		Files.deleteIfExists(compactPath);	// left by a crash during a compaction
+		dataChannel = FileChannel.open(dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		boolean created = dataChannel.size() == 0;
+		data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(MIN_DATA_SIZE, dataChannel.size()));
+		if (created) {
+			writeDataHeader(data, 0, DATA_HEADER);
+		} else if (data.getInt(0) != DATA_MAGIC || data.getInt(4) != VERSION) {
+			throw new IOException("Not a MappedMap data file: " + dataPath);
+		}
+		generation = data.getInt(DATA_GENERATION);
+		end = data.getLong(DATA_END);
+		deadBytes = data.getLong(DATA_DEAD);
+
+		if (Files.exists(indexPath)) {
+			indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			if (indexChannel.size() >= INDEX_HEADER) {
+				MappedByteBuffer existing = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexChannel.size());
+				if (existing.getInt(0) == INDEX_MAGIC && existing.getInt(4) == VERSION
+						&& existing.getInt(INDEX_GENERATION) == generation
+						&& indexChannel.size() == indexSize(existing.getInt(INDEX_CAPACITY))) {
+					mapIndex(existing);
+					return;
+				}
+			}
+			indexChannel.close();
+		}
+		rebuildIndex();
+	}
+
+	static void writeDataHeader(ByteBuffer buffer, int generation, long end) {
+		buffer.putInt(0, DATA_MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(DATA_GENERATION, generation);
+		buffer.putLong(DATA_END, end);
+		buffer.putLong(DATA_DEAD, 0);
+	}
+
+	static long indexSize(int capacity) {
+		return INDEX_HEADER + (long) capacity * SLOT;
+	}
+
+	void mapIndex(MappedByteBuffer buffer) {
+		index = buffer;
+		capacity = buffer.getInt(INDEX_CAPACITY);
+		mask = capacity - 1;
+		size = buffer.getInt(INDEX_SIZE);
+	}
+
+	/**
+	 * Writes a new index file of the given capacity and maps it in place of the current one.
+	 */
+	void createIndex(int capacity) throws IOException {
+		Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, indexSize(capacity));
+			buffer.putInt(0, INDEX_MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(INDEX_GENERATION, generation);
+			buffer.putInt(INDEX_CAPACITY, capacity);
+			buffer.putInt(INDEX_SIZE, 0);
+			MappedByteBuffer old = index;
+			int oldCapacity = this.capacity;
+			mapIndex(buffer);
+			if (old != null) {
+				for (int slot = 0; slot < oldCapacity; slot++) {
+					long record = old.getLong(INDEX_HEADER + slot * SLOT);
+					if (record != FREE) {
+						int hash = old.getInt(INDEX_HEADER + slot * SLOT + 8);
+						insertSlot(~findSlot(hash, null), record, hash);
+					}
+				}
+			}
+			buffer.force();
+		}
+		Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		if (indexChannel != null) {
+			indexChannel.close();
+		}
+		indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Replays the log : the last record of each key wins, a tombstone removes the key.
+	 */
+	void rebuildIndex() throws IOException {
+		index = null;
+		createIndex(MIN_CAPACITY);
+		for (long record = DATA_HEADER; record < end; record += recordSize(data, record)) {
+			String key = readKey(data, record);
+			int hash = key.hashCode();
+			int slot = findSlot(hash, key);
+			boolean tombstone = data.getInt((int) record + 4) == TOMBSTONE;
+			if (slot >= 0) {
+				if (tombstone) {
+					removeSlot(slot);
+				} else {
+					index.putLong(INDEX_HEADER + slot * SLOT, record);
+				}
+			} else if (!tombstone) {
+				insertSlot(~slot, record, hash);
+				growIndexIfNeeded();
+			}
+		}
+		index.force();
+	}
+
+	// ---- records
+
+	static long recordSize(ByteBuffer data, long record) {
+		int keyLength = data.getInt((int) record);
+		int valueLength = data.getInt((int) record + 4);
+		return RECORD_HEADER + 2L * keyLength + 2L * Math.max(0, valueLength);
+	}
+
+	static String readKey(ByteBuffer data, long record) {
+		return readChars(data, (int) record + RECORD_HEADER, data.getInt((int) record));
+	}
+
+	static String readValue(ByteBuffer data, long record) {
+		int keyLength = data.getInt((int) record);
+		return readChars(data, (int) record + RECORD_HEADER + 2 * keyLength, data.getInt((int) record + 4));
+	}
+
+	static String readChars(ByteBuffer data, int position, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = data.getChar(position + 2 * i);
+		}
+		return new String(chars);
+	}
+
+	static boolean keyEquals(ByteBuffer data, long record, String key) {
+		if (data.getInt((int) record) != key.length()) {
+			return false;
+		}
+		int position = (int) record + RECORD_HEADER;
+		for (int i = 0; i < key.length(); i++) {
+			if (data.getChar(position + 2 * i) != key.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Appends a record, or a tombstone if value is null, and returns its offset.
+	 */
+	long append(String key, String value) {
+		long record = end;
+		long recordSize = RECORD_HEADER + 2L * key.length() + (value == null ? 0 : 2L * value.length());
+		ensureData(record + recordSize);
+		int position = (int) record;
+		data.putInt(position, key.length());
+		data.putInt(position + 4, value == null ? TOMBSTONE : value.length());
+		position = putChars(data, position + RECORD_HEADER, key);
+		if (value != null) {
+			putChars(data, position, value);
+		}
+		end = record + recordSize;
+		data.putLong(DATA_END, end);
+		return record;
+	}
+
+	static int putChars(ByteBuffer data, int position, String s) {
+		for (int i = 0; i < s.length(); i++) {
+			data.putChar(position + 2 * i, s.charAt(i));
+		}
+		return position + 2 * s.length();
+	}
+
+	/**
+	 * Maps a larger region of the data file. The previous buffer stays valid for the iterators still using it.
+	 */
+	void ensureData(long needed) {
+		if (needed <= data.capacity()) {
+			return;
+		}
+		if (needed > MAX_DATA_SIZE) {
+			throw new IllegalStateException("MappedMap data file full (2 GB): " + dataPath);
+		}
+		long newSize = Math.min(MAX_DATA_SIZE, Math.max(needed, 2L * data.capacity()));
+		try {
+			data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	void addDeadBytes(long bytes) {
+		deadBytes += bytes;
+		data.putLong(DATA_DEAD, deadBytes);
+	}
+
+	// ---- index
+
+	int home(int hash) {
+		int h = hash * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	static int slotPosition(int slot) {
+		return INDEX_HEADER + slot * SLOT;
+	}
+
+	long recordAt(int slot) {
+		return index.getLong(slotPosition(slot));
+	}
+
+	/**
+	 * The slot of key, or ~slot of the free slot where it would be inserted. A null key finds the first free slot.
+	 */
+	int findSlot(int hash, String key) {
+		for (int slot = home(hash);; slot = (slot + 1) & mask) {
+			long record = recordAt(slot);
+			if (record == FREE) {
+				return ~slot;
+			}
+			if (key != null && index.getInt(slotPosition(slot) + 8) == hash && keyEquals(data, record, key)) {
+				return slot;
+			}
+		}
+	}
+
+	void insertSlot(int slot, long record, int hash) {
+		index.putLong(slotPosition(slot), record);
+		index.putInt(slotPosition(slot) + 8, hash);
+		index.putInt(INDEX_SIZE, ++size);
+	}
+
+	/**
+	 * Empties a slot by shifting back the following slots of its probe sequence, as IntObjectMap does.
+	 */
+	void removeSlot(int slot) {
+		int hole = slot;
+		for (int i = (hole + 1) & mask;; i = (i + 1) & mask) {
+			long record = recordAt(i);
+			if (record == FREE) {
+				break;
+			}
+			int hash = index.getInt(slotPosition(i) + 8);
+			int home = home(hash);
+			if (hole <= i ? (home <= hole || home > i) : (home <= hole && home > i)) {
+				index.putLong(slotPosition(hole), record);
+				index.putInt(slotPosition(hole) + 8, hash);
+				hole = i;
+			}
+		}
+		index.putLong(slotPosition(hole), FREE);
+		index.putInt(INDEX_SIZE, --size);
+	}
+
+	void growIndexIfNeeded() throws IOException {
+		if (size > capacity * LOAD_FACTOR) {
+			if (capacity == MAX_CAPACITY) {
+				throw new IllegalStateException("MappedMap index full: " + size + " entries");
+			}
+			createIndex(capacity * 2);
+		}
+	}
+
+	// ---- locking
+
+	void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("MappedMap closed: " + dataPath);
+		}
+	}
+
+	String read(String key) {
+		Objects.requireNonNull(key);
+		lock.readLock().lock();
+		try {
+			checkOpen();
+			int slot = findSlot(key.hashCode(), key);
+			return slot < 0 ? null : readValue(data, recordAt(slot));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the value of key, or removes it if value is null, and returns the previous value. Under the write lock.
+	 */
+	String write(String key, String value) {
+		int hash = key.hashCode();
+		int slot = findSlot(hash, key);
+		String old = null;
+		if (slot >= 0) {
+			long oldRecord = recordAt(slot);
+			old = readValue(data, oldRecord);
+			addDeadBytes(recordSize(data, oldRecord));
+		}
+		if (value == null && slot < 0) {
+			return null;
+		}
+		long record = append(key, value);
+		if (value == null) {
+			addDeadBytes(end - record);
+			removeSlot(slot);
+		} else if (slot >= 0) {
+			index.putLong(slotPosition(slot), record);
+		} else {
+			insertSlot(~slot, record, hash);
+			try {
+				growIndexIfNeeded();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		modCount++;
+		scheduleCompactionIfNeeded();
+		return old;
+	}
+
+	interface Update<R> {
+		R apply();
+	}
+
+	<R> R update(Update<R> update) {
+		lock.writeLock().lock();
+		try {
+			checkOpen();
+			return update.apply();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// ---- Map
+
+	@Override
+	public int size() {
+		lock.readLock().lock();
+		try {
+			checkOpen();
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public String get(Object key) {
+		return key instanceof String ? read((String) key) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (!(key instanceof String)) {
+			return false;
+		}
+		lock.readLock().lock();
+		try {
+			checkOpen();
+			return findSlot(key.hashCode(), (String) key) >= 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public String put(String key, String value) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(value);
+		return update(() -> write(key, value));
+	}
+
+	@Override
+	public String remove(Object key) {
+		return key instanceof String ? update(() -> write((String) key, null)) : null;
+	}
+
+	@Override
+	public String putIfAbsent(String key, String value) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(value);
+		return update(() -> {
+			String old = read(key);
+			if (old == null) {
+				write(key, value);
+			}
+			return old;
+		});
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		if (!(key instanceof String) || value == null) {
+			return false;
+		}
+		return update(() -> {
+			if (!value.equals(read((String) key))) {
+				return false;
+			}
+			write((String) key, null);
+			return true;
+		});
+	}
+
+	@Override
+	public String replace(String key, String value) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(value);
+		return update(() -> read(key) == null ? null : write(key, value));
+	}
+
+	@Override
+	public boolean replace(String key, String oldValue, String newValue) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(newValue);
+		return update(() -> {
+			if (oldValue == null || !oldValue.equals(read(key))) {
+				return false;
+			}
+			write(key, newValue);
+			return true;
+		});
+	}
+
+	@Override
+	public String computeIfAbsent(String key, Function<? super String, ? extends String> mappingFunction) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(mappingFunction);
+		return update(() -> {
+			String value = read(key);
+			if (value == null) {
+				value = mappingFunction.apply(key);
+				if (value != null) {
+					write(key, value);
+				}
+			}
+			return value;
+		});
+	}
+
+	@Override
+	public String computeIfPresent(String key, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(remappingFunction);
+		return update(() -> {
+			String old = read(key);
+			if (old == null) {
+				return null;
+			}
+			String value = remappingFunction.apply(key, old);
+			write(key, value);
+			return value;
+		});
+	}
+
+	@Override
+	public String compute(String key, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(remappingFunction);
+		return update(() -> {
+			String value = remappingFunction.apply(key, read(key));
+			write(key, value);
+			return value;
+		});
+	}
+
+	@Override
+	public String merge(String key, String value, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(value);
+		Objects.requireNonNull(remappingFunction);
+		return update(() -> {
+			String old = read(key);
+			String merged = old == null ? value : remappingFunction.apply(old, value);
+			write(key, merged);
+			return merged;
+		});
+	}
+
+	/**
+	 * Starts a new empty data file, so that the iterators still reading the current one are not affected.
+	 */
+	@Override
+	public void clear() {
+		update(() -> {
+			try {
+				install(copyRecords(new long[0]));
+				index = null;
+				createIndex(MIN_CAPACITY);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			modCount++;
+			return null;
+		});
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		return new AbstractSet<Map.Entry<String, String>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, String>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return MappedMap.this.size();
+			}
+
+			@Override
+			public void clear() {
+				MappedMap.this.clear();
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the records live when it was created : only their offsets are copied, the keys and values are read
+	 * from the data buffer of that moment, which a compaction or clear() never overwrites.
+	 */
+	class EntryIterator implements Iterator<Map.Entry<String, String>> {
+
+		final ByteBuffer records;
+		final long[] offsets;
+		int next;
+		String lastKey;
+
+		EntryIterator() {
+			lock.readLock().lock();
+			try {
+				checkOpen();
+				records = data;
+				offsets = new long[size];
+				int count = 0;
+				for (int slot = 0; slot < capacity; slot++) {
+					long record = recordAt(slot);
+					if (record != FREE) {
+						offsets[count++] = record;
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < offsets.length;
+		}
+
+		@Override
+		public Map.Entry<String, String> next() {
+			if (next == offsets.length) {
+				throw new NoSuchElementException();
+			}
+			long record = offsets[next++];
+			lastKey = readKey(records, record);
+			return new AbstractMap.SimpleEntry<String, String>(lastKey, readValue(records, record)) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public String setValue(String value) {
+					put(getKey(), value);
+					return super.setValue(value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if (lastKey == null) {
+				throw new IllegalStateException();
+			}
+			MappedMap.this.remove(lastKey);
+			lastKey = null;
+		}
+	}
+
+	// ---- compaction
+
+	/**
+	 * A data file of the next generation being written, with the new offsets of the copied records.
+	 */
+	static class Compacted {
+
+		final FileChannel channel;
+		final MappedByteBuffer buffer;
+		final long[] moved;
+
+		Compacted(FileChannel channel, MappedByteBuffer buffer, long[] moved) {
+			this.channel = channel;
+			this.buffer = buffer;
+			this.moved = moved;
+		}
+	}
+
+	/**
+	 * Copies the records whose offsets are given to a new data file of the next generation. The current files are only
+	 * read.
+	 */
+	Compacted copyRecords(long[] records) throws IOException {
+		long[] moved = new long[records.length];
+		long live = DATA_HEADER;
+		for (long record : records) {
+			if (record != FREE) {
+				live += recordSize(data, record);
+			}
+		}
+		FileChannel channel = FileChannel.open(compactPath, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(MIN_DATA_SIZE, live));
+			long position = DATA_HEADER;
+			for (int i = 0; i < records.length; i++) {
+				if (records[i] != FREE) {
+					int length = (int) recordSize(data, records[i]);
+					ByteBuffer source = data.duplicate();
+					source.limit((int) records[i] + length).position((int) records[i]);
+					ByteBuffer target = buffer.duplicate();
+					target.position((int) position);
+					target.put(source);
+					moved[i] = position;
+					position += length;
+				}
+			}
+			writeDataHeader(buffer, generation + 1, position);
+			buffer.force();
+			return new Compacted(channel, buffer, moved);
+		} catch (IOException | RuntimeException e) {
+			discard(channel);
+			throw e;
+		}
+	}
+
+	void discard(FileChannel channel) throws IOException {
+		try {
+			channel.close();
+		} finally {
+			Files.deleteIfExists(compactPath);
+		}
+	}
+
+	/**
+	 * Replaces the data file by the compacted one and points the slots to the moved records. Under the write lock.
+	 */
+	void install(Compacted compacted) throws IOException {
+		Files.move(compactPath, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		dataChannel.close();
+		dataChannel = compacted.channel;
+		data = compacted.buffer;
+		generation++;
+		end = data.getLong(DATA_END);
+		deadBytes = 0;
+		for (int slot = 0; slot < compacted.moved.length; slot++) {
+			if (compacted.moved[slot] != FREE) {
+				index.putLong(slotPosition(slot), compacted.moved[slot]);
+			}
+		}
+		index.putInt(INDEX_GENERATION, generation);
+		index.force();
+		modCount++;
+	}
+
+	/**
+	 * Copies the live records of the current generation : the offsets of the slots, in slot order.
+	 */
+	long[] liveRecords() {
+		long[] records = new long[capacity];
+		for (int slot = 0; slot < capacity; slot++) {
+			records[slot] = recordAt(slot);
+		}
+		return records;
+	}
+
+	void scheduleCompactionIfNeeded() {
+		if (compacting || compactionFailure.get() != null || deadBytes < MIN_DEAD_BYTES_TO_COMPACT
+				|| deadBytes <= end - DATA_HEADER - deadBytes) {
+			return;
+		}
+		compacting = true;
+		if (compactor == null) {
+			compactor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "MappedMap compaction " + dataPath.getFileName());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		compactor.execute(() -> {
+			try {
+				compact();
+			} catch (IOException | RuntimeException e) {
+				lock.readLock().lock();
+				try {
+					if (!closed) {	// else close() won the race, which is no failure
+						compactionFailure.set(e);	// kept for the next compact() or close()
+					}
+				} finally {
+					lock.readLock().unlock();
+				}
+			} finally {
+				compacting = false;
+			}
+		});
+	}
+
+	/**
+	 * Rewrites the data file with only the live records. The copy is made under the read lock, so that readers are not
+	 * blocked, and the new file replaces the current one under the write lock. If a write slipped in between, the copy is
+	 * made again under the write lock.
+	 *
+	 * Throws the failure of a background compaction first, if any : the next call, and the background, compact again.
+	 */
+	public synchronized void compact() throws IOException {
+		throwCompactionFailure();
+		Compacted compacted;
+		int expectedModCount;
+		lock.readLock().lock();
+		try {
+			checkOpen();
+			expectedModCount = modCount;
+			compacted = copyRecords(liveRecords());
+		} finally {
+			lock.readLock().unlock();
+		}
+		lock.writeLock().lock();
+		try {
+			if (closed || modCount != expectedModCount) {
+				discard(compacted.channel);
+				if (closed) {
+					return;
+				}
+				compacted = copyRecords(liveRecords());
+			}
+			install(compacted);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * The bytes of the data file which are no longer the live record of a key.
+	 */
+	public long deadBytes() {
+		lock.readLock().lock();
+		try {
+			return deadBytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the mapped pages of both files to the disk.
+	 */
+	public void flush() {
+		lock.readLock().lock();
+		try {
+			checkOpen();
+			data.force();
+			index.force();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			data.force();
+			index.force();
+			closed = true;
+			closeChannels();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		if (compactor != null) {
+			compactor.shutdown();
+		}
+		throwCompactionFailure();
+	}
+
+	void throwCompactionFailure() throws IOException {
+		Exception failure = compactionFailure.getAndSet(null);
+		if (failure != null) {
+			throw new IOException("Background compaction of " + dataPath + " failed", failure);
+		}
+	}
+
+	void closeChannels() throws IOException {
+		try {
+			if (dataChannel != null) {
+				dataChannel.close();
+			}
+		} finally {
+			if (indexChannel != null) {
+				indexChannel.close();
+			}
+		}
+	}
+
+}
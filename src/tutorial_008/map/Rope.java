@@ -0,0 +1,175 @@
+package tutorial_008.map;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A string value built by concatenation in O(1), for the maps whose values are appended to : merge(key, value,
+ * String::concat) of MapTest and compute("foo", (key, value) -> value + value) of _04_ConcurrentMapTest copy the whole
+ * value at every append, so n appends of a value cost O(n²) chars copied.
+ *
+ * A Rope is either a leaf holding a String or the concatenation of two ropes. Concatenating only allocates the node, the
+ * chars are copied once, when the rope is read as a String, and that String is cached in the rope. Short fragments are
+ * still joined into a single leaf, so that a value appended char by char doesn't become one node per char.
+ * "
+ 	Map<String, Rope> map = new HashMap<>();
+ 	map.merge("foo", Rope.of("bar"), Rope::concat);
+ 	map.merge("foo", Rope.of("baz"), Rope::concat);	// or Rope.appendTo(map, "foo", "baz")
+ 	map.compute("foo", (key, value) -> Rope.concat(value, value));
+ 	String foo = map.get("foo").toString();	// barbazbarbaz, copied here only
+ * "
+ * A Rope is immutable, so it is the thread-safe variant as well : ConcurrentHashMap.merge() runs the remapping function
+ * under the lock of the bin, which is held for the O(1) of a concatenation instead of the copy of the whole value, and a
+ * thread reading a value while another one appends to the key sees either the old rope or the new one, never a rope
+ * being modified.
+ */
+public final class Rope implements CharSequence {
+
+	static final int SHORT_LENGTH = 64;	// fragments up to this length are joined into a single leaf
+	static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+	static final Rope EMPTY = new Rope("");
+
+	final Rope left;
+	final Rope right;
+	final int length;
+	String flat;	// the chars, once copied : a leaf is created with it, a concatenation sets it when read
+
+	Rope(String leaf) {
+		this.left = null;
+		this.right = null;
+		this.length = leaf.length();
+		this.flat = leaf;
+	}
+
+	Rope(Rope left, Rope right) {
+		long length = (long) left.length + right.length;
+		if (length > MAX_LENGTH) {
+			throw new OutOfMemoryError("Rope too long: " + length + " chars");
+		}
+		this.left = left;
+		this.right = right;
+		this.length = (int) length;
+	}
+
+	public static Rope of(CharSequence chars) {
+		if (chars instanceof Rope) {
+			return (Rope) chars;
+		}
+		return chars.length() == 0 ? EMPTY : new Rope(chars.toString());
+	}
+
+	/**
+	 * The rope of the chars of first followed by the ones of second, without copying them unless both are short.
+	 */
+	public static Rope concat(Rope first, Rope second) {
+		first = flattened(first);
+		second = flattened(second);
+		if (first.length == 0) {
+			return second;
+		}
+		if (second.length == 0) {
+			return first;
+		}
+		if (first.length + second.length <= SHORT_LENGTH) {
+			return new Rope(first.toString().concat(second.toString()));
+		}
+		if (first.left != null && first.right.length + second.length <= SHORT_LENGTH) {
+			// appending a short fragment after a short last leaf : one node for both
+			return new Rope(first.left, new Rope(first.right.toString().concat(second.toString())));
+		}
+		return new Rope(first, second);
+	}
+
+	/**
+	 * A concatenation already read as a String becomes a leaf of that String when concatenated again, so that the new
+	 * rope doesn't keep the old tree : reading the value after each append, as in merge then get, would otherwise keep
+	 * every String read along with the nodes referencing them, O(n²) chars for n appends.
+	 */
+	static Rope flattened(Rope rope) {
+		String flat = rope.flat;
+		return rope.left != null && flat != null ? new Rope(flat) : rope;
+	}
+
+	public Rope append(CharSequence chars) {
+		return concat(this, of(chars));
+	}
+
+	/**
+	 * map.merge(key, Rope.of(fragment), Rope::concat) : appends fragment to the value of key, or maps key to it.
+	 */
+	public static <K> Rope appendTo(Map<K, Rope> map, K key, CharSequence fragment) {
+		return map.merge(key, of(fragment), Rope::concat);
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		return toString().charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().subSequence(start, end);
+	}
+
+	/**
+	 * Copies the chars of the leaves into a single String, walking the tree with a stack on the heap since a rope
+	 * appended to n times is n nodes deep. The walk goes from the last leaf to the first one and fills the array from
+	 * its end, stopping at the subtrees already read. The String is cached : a racy cache, like String.hashCode(), since
+	 * two threads reading the same rope at once compute equal Strings.
+	 */
+	@Override
+	public String toString() {
+		String flat = this.flat;
+		if (flat != null) {
+			return flat;
+		}
+		char[] chars = new char[length];
+		int end = length;
+		ArrayDeque<Rope> stack = new ArrayDeque<>();
+		stack.push(this);
+		while (!stack.isEmpty()) {
+			Rope rope = stack.pop();
+			String leaf = rope.flat;
+			if (leaf != null) {
+				end -= leaf.length();
+				leaf.getChars(0, leaf.length(), chars, end);
+			} else {
+				stack.push(rope.left);
+				stack.push(rope.right);
+			}
+		}
+		flat = new String(chars);
+		this.flat = flat;
+		return flat;
+	}
+
+	/**
+	 * Ropes are equal when their chars are, whatever their trees.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		return o instanceof Rope && length == ((Rope) o).length && toString().equals(o.toString());
+	}
+
+	@Override
+	public int hashCode() {
+		return toString().hashCode();
+	}
+
+	/**
+	 * Compares the chars of a rope with any other CharSequence, like String.contentEquals().
+	 */
+	public boolean contentEquals(CharSequence chars) {
+		return toString().contentEquals(Objects.requireNonNull(chars));
+	}
+
+}
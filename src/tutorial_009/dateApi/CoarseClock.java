@@ -0,0 +1,184 @@
+package tutorial_009.dateApi;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Clock reading the time published by a background ticker, for timestamping millions of events per second, where the
+ * Clock.systemDefaultZone() of DateApiTest asks the system at every millis() and creates an Instant at every instant().
+ *
+ * A daemon thread reads System.currentTimeMillis() once per resolution, and publishes it along with its Instant in a
+ * single volatile field : a timestamp costs one read, and the events of a tick share the same Instant.
+ * "
+ 	CoarseClock clock = CoarseClock.start(Duration.ofMillis(1));
+ 	long millis = clock.millis();	// the system time at the last tick
+ 	Instant instant = clock.instant();	// no allocation
+ 	clock.close();	// stops the ticker, the clock then reads the system clock at every call
+ * "
+ * The time read lags behind the system clock by up to the resolution, more when the ticker runs late (a GC pause, a
+ * starved CPU) : drift() gives the current lag and maxDrift() the largest one the ticker has seen. Every tick reads the
+ * system clock again, so the lag doesn't accumulate, and the clock follows the adjustments of the system clock like
+ * Clock.systemUTC() does : it isn't monotonic, System.nanoTime() stays the one to measure durations with.
+ *
+ * withZone() returns a clock sharing the same ticker, closing any of them stops it for all. A clock not closed keeps its
+ * ticker thread until the JVM exits.
+ */
+public final class CoarseClock extends Clock implements AutoCloseable {
+
+	/**
+	 * The value of the clock between two ticks.
+	 */
+	static final class Tick {
+
+		final long millis;
+		final Instant instant;
+
+		Tick(long millis) {
+			this.millis = millis;
+			this.instant = Instant.ofEpochMilli(millis);
+		}
+	}
+
+	static final Tick CLOSED = new Tick(0);
+
+	static final class Ticker implements Runnable {
+
+		final long resolutionMillis;
+		final ScheduledExecutorService executor;
+		volatile Tick tick = new Tick(System.currentTimeMillis());
+		volatile long maxDrift;
+
+		Ticker(long resolutionMillis) {
+			this.resolutionMillis = resolutionMillis;
+			executor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "CoarseClock ticker");
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.scheduleAtFixedRate(this, resolutionMillis, resolutionMillis, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Publishes the system time, if it changed. Synchronized with close() only, so that a tick running while the
+		 * clock is closed can't publish after it.
+		 */
+		@Override
+		public synchronized void run() {
+			Tick previous = tick;
+			if (previous == CLOSED) {
+				return;
+			}
+			long now = System.currentTimeMillis();
+			long drift = now - previous.millis;	// the lag of the clock just before this tick
+			if (drift > maxDrift) {
+				maxDrift = drift;
+			}
+			if (now != previous.millis) {
+				tick = new Tick(now);
+			}
+		}
+
+		synchronized void close() {
+			executor.shutdownNow();
+			tick = CLOSED;
+		}
+	}
+
+	final Ticker ticker;
+	final ZoneId zone;
+
+	CoarseClock(Ticker ticker, ZoneId zone) {
+		this.ticker = ticker;
+		this.zone = zone;
+	}
+
+	/**
+	 * Starts a clock in UTC ticking every resolution, of at least 1 millisecond.
+	 */
+	public static CoarseClock start(Duration resolution) {
+		return start(resolution, ZoneOffset.UTC);
+	}
+
+	public static CoarseClock start(Duration resolution, ZoneId zone) {
+		long resolutionMillis = resolution.toMillis();
+		if (resolutionMillis < 1) {
+			throw new IllegalArgumentException("Resolution under 1 ms: " + resolution);
+		}
+		return new CoarseClock(new Ticker(resolutionMillis), zone);
+	}
+
+	@Override
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	@Override
+	public CoarseClock withZone(ZoneId zone) {
+		return zone.equals(this.zone) ? this : new CoarseClock(ticker, zone);
+	}
+
+	@Override
+	public long millis() {
+		Tick tick = ticker.tick;
+		return tick != CLOSED ? tick.millis : System.currentTimeMillis();
+	}
+
+	@Override
+	public Instant instant() {
+		Tick tick = ticker.tick;
+		return tick != CLOSED ? tick.instant : Instant.now();
+	}
+
+	public Duration resolution() {
+		return Duration.ofMillis(ticker.resolutionMillis);
+	}
+
+	/**
+	 * How many milliseconds the clock is behind the system clock now : reads the system clock, so for monitoring only.
+	 */
+	public long drift() {
+		Tick tick = ticker.tick;
+		return tick != CLOSED ? System.currentTimeMillis() - tick.millis : 0;
+	}
+
+	/**
+	 * The largest lag of the clock behind the system clock seen by the ticker, just before publishing a new time. About
+	 * the resolution when the ticker keeps up.
+	 */
+	public long maxDrift() {
+		return ticker.maxDrift;
+	}
+
+	/**
+	 * Stops the ticker : the clock, and the ones of withZone(), then read the system clock at every call.
+	 */
+	@Override
+	public void close() {
+		ticker.close();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		return o instanceof CoarseClock && ticker == ((CoarseClock) o).ticker && zone.equals(((CoarseClock) o).zone);
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(ticker) ^ zone.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "CoarseClock[" + zone + "," + resolution() + "]";
+	}
+
+}
@@ -1,13 +1,16 @@
 package tutorial_009.dateApi;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Month;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.time.temporal.ChronoField;
@@ -160,6 +163,46 @@ public class DateApiTest {
 		LocalDateTime parsed = LocalDateTime.parse("2014-11-03 07:13", dateTimeFormatter);
 		String string = dateTimeFormatter.format(parsed);
 		System.out.println(string); // 2014-11-03 07:13
+
+		System.out.println("=====================================");
+
+		/*
+		 * FIXED PATTERNS : DateTimeFormatter allocates a parse context and the map of the parsed fields at every parse. For
+		 * the fixed width numeric patterns of log timestamps, FixedDateTimeFormatter reads the digits at their positions,
+		 * from a String or from the bytes of a line not yet decoded, and writes them into a buffer of the caller.
+		 */
+		FixedDateTimeFormatter fixedFormatter = FixedDateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+		LocalDateTime fixedParsed = fixedFormatter.parse("2014-11-03 07:13");
+		System.out.println(fixedParsed.equals(parsed)); // true
+		System.out.println(fixedFormatter.format(fixedParsed)); // 2014-11-03 07:13
+
+		byte[] line = "2014-11-03 07:13 INFO started".getBytes(StandardCharsets.US_ASCII);
+		long lineMillis = fixedFormatter.parseEpochMilli(line, 0, ZoneOffset.UTC);
+		System.out.println(Instant.ofEpochMilli(lineMillis)); // 2014-11-03T07:13:00Z
+
+		char[] buffer = new char[fixedFormatter.length()];
+		fixedFormatter.formatTo(sylvester, buffer, 0);
+		System.out.println(buffer); // 2014-12-31 23:59
+
+		System.out.println("=====================================");
+
+		/*
+		 * COARSE CLOCK : clock.millis() and clock.instant() above ask the system clock at every call, and instant() creates
+		 * an Instant. To timestamp millions of events per second, CoarseClock reads the system clock from a background
+		 * ticker once per resolution and publishes the time in a volatile field : a timestamp is then a single read, late
+		 * by up to the resolution.
+		 */
+		try (CoarseClock coarseClock = CoarseClock.start(Duration.ofMillis(1), ZoneId.systemDefault())) {
+			Instant first = coarseClock.instant();
+			Instant second = coarseClock.instant();
+			System.out.println(first == second); // true, most of the time : the same Instant until the next tick
+			System.out.println(coarseClock.millis() - clock.millis() <= 0); // true : the coarse clock can only lag behind
+
+			LocalDateTime now = LocalDateTime.now(coarseClock); // any API taking a Clock can use it
+			System.out.println(now); // Output the date-time of the last tick.
+			System.out.println(coarseClock.drift()); // Output the lag behind the system clock, a few milliseconds at most.
+		}
 	}
 
 }
@@ -0,0 +1,627 @@
+package tutorial_009.dateApi;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+
+/**
+ * A formatter for the fixed width numeric patterns of log timestamps, where DateTimeFormatter.ofPattern("yyyy-MM-dd
+ * HH:mm") of DateApiTest allocates a parse context, a map of the parsed fields and the objects of their resolution at
+ * every parse, and a StringBuilder at every format.
+ *
+ * The pattern is compiled once into the position and the width of each field. A parse reads the digits at these
+ * positions and checks the literals in between, from a CharSequence or from the ASCII bytes of a line not yet decoded,
+ * and allocates only its result, nothing at all for an epoch value. A format writes the digits into a buffer of the
+ * caller :
+ * "
+ 	FixedDateTimeFormatter formatter = FixedDateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+ 	LocalDateTime dateTime = formatter.parse("2014-11-03 07:13:59.042");
+ 	long epochMilli = formatter.parseEpochMilli(line, 0, ZoneOffset.UTC);	// line : a byte[] read from a log file
+ 	int end = formatter.formatTo(dateTime, buffer, offset);	// buffer : a char[] or a byte[], end = offset + 23
+ * "
+ * The patterns are the ones of DateTimeFormatter.ofPattern() made of yyyy or uuuu, MM and dd, optionally HH, mm, ss and
+ * S to SSSSSSSSS, separated by literals, quoted or not. For those, the output and the parsed values are the ones of
+ * DateTimeFormatter, including its SMART resolution : a day past the end of the month is moved to its last day, and
+ * 24:00 is midnight of the next day. The differences come from the fixed width : the years are limited to 4 digits
+ * (1 to 9999 for yyyy, 0 to 9999 for uuuu, where DateTimeFormatter writes +10000), and a pattern without HH parses to
+ * midnight instead of failing. The byte methods need a pattern whose literals are ASCII, and throw an
+ * UnsupportedOperationException for any other one. Like DateTimeFormatter, a FixedDateTimeFormatter is immutable and
+ * thread-safe.
+ */
+public final class FixedDateTimeFormatter {
+
+	static final int YEAR = 0;
+	static final int MONTH = 1;
+	static final int DAY = 2;
+	static final int HOUR = 3;
+	static final int MINUTE = 4;
+	static final int SECOND = 5;
+	static final int FRACTION = 6;
+	static final int FIELDS = 7;
+	static final int LITERAL = -1;
+
+	static final int SECONDS_PER_DAY = 86400;
+	static final long DAYS_0000_TO_1970 = 719528;
+	static final int DAYS_PER_CYCLE = 146097;	// days in 400 years
+	static final int[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+
+	final String pattern;
+	final int length;
+	final int[] starts;	// the position of each field, or -1 if the pattern doesn't have it
+	final int[] widths;
+	final byte[] fields;	// the field of each position, or LITERAL
+	final char[] template;	// the literal of each position, '0' for the digits
+	final int[] literalPositions;
+	final char[] literals;
+	final boolean yearOfEra;	// yyyy : 1 to 9999, uuuu : 0 to 9999
+	final boolean asciiLiterals;	// whether the byte methods can be used
+	final int fractionScale;	// nanos per unit of the fraction digits
+
+	FixedDateTimeFormatter(String pattern, int[] starts, int[] widths, byte[] fields, char[] chars, boolean yearOfEra) {
+		this.pattern = pattern;
+		this.length = fields.length;
+		this.starts = starts;
+		this.widths = widths;
+		this.fields = fields;
+		this.template = chars;
+		this.yearOfEra = yearOfEra;
+		this.fractionScale = starts[FRACTION] < 0 ? 0 : POWERS_OF_TEN[9 - widths[FRACTION]];
+		int count = 0;
+		for (byte field : fields) {
+			if (field == LITERAL) {
+				count++;
+			}
+		}
+		literalPositions = new int[count];
+		literals = new char[count];
+		count = 0;
+		boolean ascii = true;
+		for (int i = 0; i < length; i++) {
+			if (fields[i] == LITERAL) {
+				literalPositions[count] = i;
+				literals[count++] = chars[i];
+				ascii &= chars[i] < 0x80;
+			}
+		}
+		asciiLiterals = ascii;
+	}
+
+	/**
+	 * Compiles a pattern of DateTimeFormatter.ofPattern() made of fixed width numeric fields, throwing an
+	 * IllegalArgumentException for any other one.
+	 */
+	public static FixedDateTimeFormatter ofPattern(String pattern) {
+		int[] starts = {-1, -1, -1, -1, -1, -1, -1};
+		int[] widths = new int[FIELDS];
+		StringBuilder chars = new StringBuilder();
+		StringBuilder fields = new StringBuilder();
+		boolean yearOfEra = false;
+		for (int i = 0; i < pattern.length(); ) {
+			char c = pattern.charAt(i);
+			if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+				int end = i + 1;
+				while (end < pattern.length() && pattern.charAt(end) == c) {
+					end++;
+				}
+				int width = end - i;
+				int field = field(c, width);
+				if (field == LITERAL) {
+					throw new IllegalArgumentException("Not a fixed width numeric field: " + pattern.substring(i, end));
+				}
+				if (starts[field] >= 0) {
+					throw new IllegalArgumentException("Field repeated in pattern: " + pattern);
+				}
+				starts[field] = chars.length();
+				widths[field] = width;
+				yearOfEra |= c == 'y';
+				for (int j = 0; j < width; j++) {
+					chars.append('0');
+					fields.append((char) field);
+				}
+				i = end;
+			} else if (c == '\'') {
+				int end = i + 1;
+				while (true) {
+					if (end == pattern.length()) {
+						throw new IllegalArgumentException("Pattern ends with an incomplete string literal: " + pattern);
+					}
+					if (pattern.charAt(end) == '\'') {
+						if (end + 1 < pattern.length() && pattern.charAt(end + 1) == '\'') {
+							end++;	// '' : a quote inside the literal
+						} else {
+							break;
+						}
+					}
+					chars.append(pattern.charAt(end));
+					fields.append((char) LITERAL);
+					end++;
+				}
+				if (end == i + 1) {
+					chars.append('\'');	// '' : a quote
+					fields.append((char) LITERAL);
+				}
+				i = end + 1;
+			} else if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+				throw new IllegalArgumentException("Not a fixed width pattern: " + pattern);
+			} else {
+				chars.append(c);
+				fields.append((char) LITERAL);
+				i++;
+			}
+		}
+		if (starts[YEAR] < 0 || starts[MONTH] < 0 || starts[DAY] < 0) {
+			throw new IllegalArgumentException("Pattern without yyyy or uuuu, MM and dd: " + pattern);
+		}
+		byte[] fieldBytes = new byte[fields.length()];
+		for (int i = 0; i < fieldBytes.length; i++) {
+			fieldBytes[i] = (byte) fields.charAt(i);
+		}
+		return new FixedDateTimeFormatter(pattern, starts, widths, fieldBytes, chars.toString().toCharArray(), yearOfEra);
+	}
+
+	/**
+	 * The field of a run of width pattern letters c, or LITERAL if the run isn't a supported field.
+	 */
+	static int field(char c, int width) {
+		switch (c) {
+			case 'y':
+			case 'u':
+				return width == 4 ? YEAR : LITERAL;
+			case 'M':
+				return width == 2 ? MONTH : LITERAL;
+			case 'd':
+				return width == 2 ? DAY : LITERAL;
+			case 'H':
+				return width == 2 ? HOUR : LITERAL;
+			case 'm':
+				return width == 2 ? MINUTE : LITERAL;
+			case 's':
+				return width == 2 ? SECOND : LITERAL;
+			case 'S':
+				return width <= 9 ? FRACTION : LITERAL;
+			default:
+				return LITERAL;
+		}
+	}
+
+	/**
+	 * The number of chars of the texts of this formatter.
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Parses the whole text, as LocalDateTime.parse(text, DateTimeFormatter.ofPattern(pattern)).
+	 */
+	public LocalDateTime parse(CharSequence text) {
+		if (text.length() > length) {
+			if (mismatch(text, 0) < length) {
+				throw notParsed(text, 0);
+			}
+			throw new DateTimeParseException("Text '" + text + "' could not be parsed, unparsed text found at index "
+					+ length, text, length);
+		}
+		return parse(text, 0);
+	}
+
+	/**
+	 * Parses the length() chars of text from offset, ignoring the ones after.
+	 */
+	public LocalDateTime parse(CharSequence text, int offset) {
+		checkOffset(offset, text.length());
+		if (text.length() - offset < length) {
+			throw notParsed(text, offset);
+		}
+		int year = digits(text, offset, YEAR);
+		int month = digits(text, offset, MONTH);
+		int day = digits(text, offset, DAY);
+		int hour = digits(text, offset, HOUR);
+		int minute = digits(text, offset, MINUTE);
+		int second = digits(text, offset, SECOND);
+		int fraction = digits(text, offset, FRACTION);
+		if ((year | month | day | hour | minute | second | fraction) < 0 || !literalsMatch(text, offset)) {
+			throw notParsed(text, offset);
+		}
+		if (!valid(year, month, day, hour, minute, second, fraction)) {
+			throw invalid(text, year, month, day, hour, minute, second);
+		}
+		return toLocalDateTime(year, month, day, hour, minute, second, fraction * fractionScale);
+	}
+
+	/**
+	 * Parses the length() ASCII bytes of bytes from offset, as parse(new String(bytes, offset, length(),
+	 * StandardCharsets.US_ASCII)) without decoding them.
+	 */
+	public LocalDateTime parse(byte[] bytes, int offset) {
+		checkAscii();
+		checkOffset(offset, bytes.length);
+		if (bytes.length - offset < length) {
+			throw failure(bytes, offset);
+		}
+		int year = digits(bytes, offset, YEAR);
+		int month = digits(bytes, offset, MONTH);
+		int day = digits(bytes, offset, DAY);
+		int hour = digits(bytes, offset, HOUR);
+		int minute = digits(bytes, offset, MINUTE);
+		int second = digits(bytes, offset, SECOND);
+		int fraction = digits(bytes, offset, FRACTION);
+		if ((year | month | day | hour | minute | second | fraction) < 0 || !literalsMatch(bytes, offset)
+				|| !valid(year, month, day, hour, minute, second, fraction)) {
+			throw failure(bytes, offset);
+		}
+		return toLocalDateTime(year, month, day, hour, minute, second, fraction * fractionScale);
+	}
+
+	/**
+	 * Parses the length() chars of text from offset into the milliseconds since the epoch of the date-time at the given
+	 * offset, as parse(text, offset).toInstant(zone).toEpochMilli() without creating any object.
+	 */
+	public long parseEpochMilli(CharSequence text, int offset, ZoneOffset zone) {
+		checkOffset(offset, text.length());
+		if (text.length() - offset < length) {
+			throw notParsed(text, offset);
+		}
+		int year = digits(text, offset, YEAR);
+		int month = digits(text, offset, MONTH);
+		int day = digits(text, offset, DAY);
+		int hour = digits(text, offset, HOUR);
+		int minute = digits(text, offset, MINUTE);
+		int second = digits(text, offset, SECOND);
+		int fraction = digits(text, offset, FRACTION);
+		if ((year | month | day | hour | minute | second | fraction) < 0 || !literalsMatch(text, offset)) {
+			throw notParsed(text, offset);
+		}
+		if (!valid(year, month, day, hour, minute, second, fraction)) {
+			throw invalid(text, year, month, day, hour, minute, second);
+		}
+		return toEpochMilli(year, month, day, hour, minute, second, fraction * fractionScale, zone);
+	}
+
+	/**
+	 * Parses the length() ASCII bytes of bytes from offset, as parseEpochMilli(CharSequence, int, ZoneOffset).
+	 */
+	public long parseEpochMilli(byte[] bytes, int offset, ZoneOffset zone) {
+		checkAscii();
+		checkOffset(offset, bytes.length);
+		if (bytes.length - offset < length) {
+			throw failure(bytes, offset);
+		}
+		int year = digits(bytes, offset, YEAR);
+		int month = digits(bytes, offset, MONTH);
+		int day = digits(bytes, offset, DAY);
+		int hour = digits(bytes, offset, HOUR);
+		int minute = digits(bytes, offset, MINUTE);
+		int second = digits(bytes, offset, SECOND);
+		int fraction = digits(bytes, offset, FRACTION);
+		if ((year | month | day | hour | minute | second | fraction) < 0 || !literalsMatch(bytes, offset)
+				|| !valid(year, month, day, hour, minute, second, fraction)) {
+			throw failure(bytes, offset);
+		}
+		return toEpochMilli(year, month, day, hour, minute, second, fraction * fractionScale, zone);
+	}
+
+	static void checkOffset(int offset, int length) {
+		if (offset < 0 || offset > length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length);
+		}
+	}
+
+	/**
+	 * The value of the digits of a field, 0 if the pattern doesn't have it, or -1 if a char isn't a digit.
+	 */
+	int digits(CharSequence text, int offset, int field) {
+		int start = starts[field];
+		if (start < 0) {
+			return 0;
+		}
+		int value = 0;
+		for (int i = offset + start, end = i + widths[field]; i < end; i++) {
+			int digit = text.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	int digits(byte[] bytes, int offset, int field) {
+		int start = starts[field];
+		if (start < 0) {
+			return 0;
+		}
+		int value = 0;
+		for (int i = offset + start, end = i + widths[field]; i < end; i++) {
+			int digit = bytes[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	boolean literalsMatch(CharSequence text, int offset) {
+		for (int i = 0; i < literals.length; i++) {
+			if (text.charAt(offset + literalPositions[i]) != literals[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	boolean literalsMatch(byte[] bytes, int offset) {
+		for (int i = 0; i < literals.length; i++) {
+			if ((bytes[offset + literalPositions[i]] & 0xFF) != literals[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the SMART resolver of DateTimeFormatter accepts the fields : it checks the day against 31 only, and
+	 * accepts 24:00 as the end of the day.
+	 */
+	boolean valid(int year, int month, int day, int hour, int minute, int second, int fraction) {
+		return (year > 0 || !yearOfEra) && month >= 1 && month <= 12 && day >= 1 && day <= 31
+				&& (hour < 24 || (hour == 24 && minute == 0 && second == 0 && fraction == 0))
+				&& minute < 60 && second < 60;
+	}
+
+	static LocalDateTime toLocalDateTime(int year, int month, int day, int hour, int minute, int second, int nano) {
+		day = Math.min(day, monthLength(year, month));
+		if (hour == 24) {
+			return LocalDateTime.of(year, month, day, 0, 0).plusDays(1);
+		}
+		return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+	}
+
+	static long toEpochMilli(int year, int month, int day, int hour, int minute, int second, int nano,
+			ZoneOffset zone) {
+		day = Math.min(day, monthLength(year, month));
+		long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second
+				- zone.getTotalSeconds();
+		return epochSecond * 1000 + nano / 1000000;
+	}
+
+	static boolean isLeap(long year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	static int monthLength(int year, int month) {
+		switch (month) {
+			case 2:
+				return isLeap(year) ? 29 : 28;
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+
+	/**
+	 * LocalDate.of(year, month, day).toEpochDay(), for years from 0.
+	 */
+	static long epochDay(int year, int month, int day) {
+		long y = year;
+		long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+		total += (367 * month - 362) / 12;
+		total += day - 1;
+		if (month > 2) {
+			total--;
+			if (!isLeap(year)) {
+				total--;
+			}
+		}
+		return total - DAYS_0000_TO_1970;
+	}
+
+	/**
+	 * The exception of DateTimeFormatter for a text whose chars don't match the pattern : at the position of the first
+	 * mismatching literal, or at the start of the field of the first mismatching digit. The year of DateTimeFormatter
+	 * takes more than 4 digits, so a digit instead of the literal after the year fails at the start of the year.
+	 */
+	DateTimeParseException notParsed(CharSequence text, int offset) {
+		int i = mismatch(text, offset);
+		int index = i;
+		if (i < length && fields[i] != LITERAL) {
+			index = starts[fields[i]];
+		} else if (i < length && i == starts[YEAR] + 4 && offset + i < text.length()) {
+			char c = text.charAt(offset + i);
+			index = c >= '0' && c <= '9' ? starts[YEAR] : i;
+		}
+		index += offset;
+		return new DateTimeParseException("Text '" + text + "' could not be parsed at index " + index, text, index);
+	}
+
+	/**
+	 * The first position where the chars of text from offset don't match the pattern, length if they all do.
+	 */
+	int mismatch(CharSequence text, int offset) {
+		int end = Math.min(length, text.length() - offset);
+		int i = 0;
+		while (i < end) {
+			char c = text.charAt(offset + i);
+			if (fields[i] == LITERAL ? c != template[i] : c < '0' || c > '9') {
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * The exception of DateTimeFormatter for fields out of their range, with the message of ChronoField.
+	 */
+	DateTimeParseException invalid(CharSequence text, int year, int month, int day, int hour, int minute, int second) {
+		try {
+			(yearOfEra ? ChronoField.YEAR_OF_ERA : ChronoField.YEAR).checkValidValue(year);
+			ChronoField.MONTH_OF_YEAR.checkValidValue(month);
+			ChronoField.DAY_OF_MONTH.checkValidValue(day);
+			ChronoField.MINUTE_OF_HOUR.checkValidValue(minute);
+			ChronoField.SECOND_OF_MINUTE.checkValidValue(second);
+			ChronoField.HOUR_OF_DAY.checkValidValue(hour);
+		} catch (DateTimeException e) {
+			return new DateTimeParseException("Text '" + text + "' could not be parsed: " + e.getMessage(), text, 0, e);
+		}
+		return new DateTimeParseException("Text '" + text + "' could not be parsed", text, 0);
+	}
+
+	/**
+	 * The exception of a byte slice which doesn't parse : the bytes are decoded, only in that case, and parsed again to
+	 * get the exception of the same text as a CharSequence.
+	 */
+	DateTimeParseException failure(byte[] bytes, int offset) {
+		String text = new String(bytes, offset, Math.min(length, bytes.length - offset), StandardCharsets.ISO_8859_1);
+		try {
+			parse(text, 0);
+		} catch (DateTimeParseException e) {
+			return e;
+		}
+		return new DateTimeParseException("Text '" + text + "' could not be parsed", text, 0);
+	}
+
+	/**
+	 * Formats as DateTimeFormatter.ofPattern(pattern).format(dateTime).
+	 */
+	public String format(LocalDateTime dateTime) {
+		char[] chars = new char[length];
+		formatTo(dateTime, chars, 0);
+		return new String(chars);
+	}
+
+	/**
+	 * Writes the length() chars of dateTime into buffer from offset, and returns the offset after them.
+	 */
+	public int formatTo(LocalDateTime dateTime, char[] buffer, int offset) {
+		checkBuffer(offset, buffer.length);
+		write(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(),
+				dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano(), buffer, null, offset);
+		return offset + length;
+	}
+
+	/**
+	 * Writes the length() chars of dateTime as ASCII bytes into buffer from offset, and returns the offset after them.
+	 */
+	public int formatTo(LocalDateTime dateTime, byte[] buffer, int offset) {
+		checkAscii();
+		checkBuffer(offset, buffer.length);
+		write(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(),
+				dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano(), null, buffer, offset);
+		return offset + length;
+	}
+
+	/**
+	 * Writes the date-time at the given offset of an instant in milliseconds since the epoch, as formatTo(LocalDateTime
+	 * .ofEpochSecond(...), buffer, offset) without creating any object.
+	 */
+	public int formatEpochMilli(long epochMilli, ZoneOffset zone, char[] buffer, int offset) {
+		checkBuffer(offset, buffer.length);
+		writeEpochMilli(epochMilli, zone, buffer, null, offset);
+		return offset + length;
+	}
+
+	public int formatEpochMilli(long epochMilli, ZoneOffset zone, byte[] buffer, int offset) {
+		checkAscii();
+		checkBuffer(offset, buffer.length);
+		writeEpochMilli(epochMilli, zone, null, buffer, offset);
+		return offset + length;
+	}
+
+	void checkAscii() {
+		if (!asciiLiterals) {
+			throw new UnsupportedOperationException("Pattern with non-ASCII literals, for chars only: " + pattern);
+		}
+	}
+
+	void checkBuffer(int offset, int bufferLength) {
+		if (offset < 0 || offset > bufferLength - length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", buffer " + bufferLength);
+		}
+	}
+
+	/**
+	 * The date of the epoch day as LocalDate.ofEpochDay(), computed inline : from the days since the 1st of March of
+	 * year 0, a year starting in March having its leap day at its end.
+	 */
+	void writeEpochMilli(long epochMilli, ZoneOffset zone, char[] chars, byte[] bytes, int offset) {
+		long epochSecond = Math.floorDiv(epochMilli, 1000) + zone.getTotalSeconds();
+		int nano = (int) (epochMilli - Math.floorDiv(epochMilli, 1000) * 1000) * 1000000;
+		long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+		int secondOfDay = (int) (epochSecond - epochDay * SECONDS_PER_DAY);
+		long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+		long adjust = 0;
+		if (zeroDay < 0) {
+			long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+			adjust = adjustCycles * 400;
+			zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+		}
+		long yearEstimate = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+		long dayOfYear = zeroDay - (365 * yearEstimate + yearEstimate / 4 - yearEstimate / 100 + yearEstimate / 400);
+		if (dayOfYear < 0) {
+			yearEstimate--;
+			dayOfYear = zeroDay - (365 * yearEstimate + yearEstimate / 4 - yearEstimate / 100 + yearEstimate / 400);
+		}
+		int marchMonth = ((int) dayOfYear * 5 + 2) / 153;
+		int month = (marchMonth + 2) % 12 + 1;
+		int day = (int) dayOfYear - (marchMonth * 306 + 5) / 10 + 1;
+		long year = yearEstimate + adjust + marchMonth / 10;
+		write(year, month, day, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, nano, chars, bytes, offset);
+	}
+
+	/**
+	 * Writes the fields into chars, or into bytes if chars is null.
+	 */
+	void write(long year, int month, int day, int hour, int minute, int second, int nano, char[] chars, byte[] bytes,
+			int offset) {
+		if (year < (yearOfEra ? 1 : 0) || year > 9999) {
+			throw new DateTimeException("Year " + year + " out of the 4 digits of pattern " + pattern);
+		}
+		for (int i = 0; i < literals.length; i++) {
+			if (chars != null) {
+				chars[offset + literalPositions[i]] = literals[i];
+			} else {
+				bytes[offset + literalPositions[i]] = (byte) literals[i];
+			}
+		}
+		writeDigits(YEAR, (int) year, chars, bytes, offset);
+		writeDigits(MONTH, month, chars, bytes, offset);
+		writeDigits(DAY, day, chars, bytes, offset);
+		writeDigits(HOUR, hour, chars, bytes, offset);
+		writeDigits(MINUTE, minute, chars, bytes, offset);
+		writeDigits(SECOND, second, chars, bytes, offset);
+		if (fractionScale != 0) {
+			writeDigits(FRACTION, nano / fractionScale, chars, bytes, offset);
+		}
+	}
+
+	void writeDigits(int field, int value, char[] chars, byte[] bytes, int offset) {
+		int start = starts[field];
+		if (start < 0) {
+			return;
+		}
+		for (int i = offset + start + widths[field] - 1; i >= offset + start; i--) {
+			char digit = (char) ('0' + value % 10);
+			if (chars != null) {
+				chars[i] = digit;
+			} else {
+				bytes[i] = (byte) digit;
+			}
+			value /= 10;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return pattern;
+	}
+
+}
@@ -0,0 +1,237 @@
+package tutorial_011.advancedStreamsTests._02.processingOrder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Query-style builder of java.util.stream pipelines which reorders the declared stages when it is provably safe,
+ * instead of relying on the developer to write filter() before map() and sorted() as ProcessingOrderTest does by hand.
+ *
+ * Stages are declared side-effect-free (pureFilter, pureMap) or not (filter, map, peek). Only side-effect-free stages
+ * are ever moved or crossed, so a lambda with side effects always sees exactly the elements it would have seen. Rules :
+ * - whereSource() filters test the source elements, so they can only be declared right after the source : declaring
+ *   one after any other stage fails with an IllegalStateException. A filter on the mapped values is a pureFilter().
+ * - a pure filter declared after sorted() is moved before it : fewer elements to sort, same order.
+ * - limit() declared after a pure map is moved before it : maps are one to one, so fewer elements are mapped.
+ * - sorted() directly followed by limit(k) becomes a top-k sort keeping only k elements in a bounded heap (see TopK).
+ *
+ * explain() prints the declared stages, the executed ones and the rules that were applied :
+ * "
+ 	Pipeline.from(strings)
+ 	        .whereSource("startsWithA", s -> s.startsWith("a"))
+ 	        .pureMap("toUpperCase", String::toUpperCase)
+ 	        .sorted("natural", Comparator.naturalOrder())
+ 	        .pureFilter("endsWith2", s -> s.endsWith("2"))
+ 	        .limit(3)
+ 	        .explain();
+ * "
+ */
+public class Pipeline<S, T> {
+
+	enum Kind {
+		WHERE, FILTER, MAP, PEEK, SORTED, LIMIT, TOP_K
+	}
+
+	static class Stage {
+
+		final Kind kind;
+		final String name;
+		final boolean pure;
+		final Object function;
+		final long limit;
+
+		Stage(Kind kind, String name, boolean pure, Object function, long limit) {
+			this.kind = kind;
+			this.name = name;
+			this.pure = pure;
+			this.function = function;
+			this.limit = limit;
+		}
+
+		@Override
+		public String toString() {
+			switch (kind) {
+				case LIMIT:
+					return "limit(" + limit + ")";
+				case TOP_K:
+					return "topK(" + name + ", " + limit + ")";
+				case WHERE:
+					return "whereSource(" + name + ")";
+				case FILTER:
+					return (pure ? "pureFilter(" : "filter(") + name + ")";
+				case MAP:
+					return (pure ? "pureMap(" : "map(") + name + ")";
+				default:
+					return kind.name().toLowerCase() + "(" + name + ")";
+			}
+		}
+	}
+
+	final Supplier<Stream<S>> source;
+	final List<Stage> stages;
+
+	Pipeline(Supplier<Stream<S>> source, List<Stage> stages) {
+		this.source = source;
+		this.stages = stages;
+	}
+
+	public static <S> Pipeline<S, S> from(Collection<S> source) {
+		return new Pipeline<>(source::stream, new ArrayList<>());
+	}
+
+	/**
+	 * @param source creates the stream to run the pipeline on, sequential or parallel.
+	 */
+	public static <S> Pipeline<S, S> from(Supplier<Stream<S>> source) {
+		return new Pipeline<>(source, new ArrayList<>());
+	}
+
+	<R> Pipeline<S, R> with(Stage stage) {
+		List<Stage> next = new ArrayList<>(stages);
+		next.add(stage);
+		return new Pipeline<>(source, next);
+	}
+
+	/**
+	 * Side-effect-free filter on the source elements, declared right after the source or after other whereSource().
+	 */
+	public Pipeline<S, T> whereSource(String name, Predicate<? super S> predicate) {
+		Stage stage = new Stage(Kind.WHERE, name, true, predicate, 0);
+		for (Stage previous : stages) {
+			if (previous.kind != Kind.WHERE) {
+				throw new IllegalStateException(stage + " cannot be evaluated on the source elements: it is declared after "
+						+ previous);
+			}
+		}
+		return with(stage);
+	}
+
+	public Pipeline<S, T> pureFilter(String name, Predicate<? super T> predicate) {
+		return with(new Stage(Kind.FILTER, name, true, predicate, 0));
+	}
+
+	public Pipeline<S, T> filter(String name, Predicate<? super T> predicate) {
+		return with(new Stage(Kind.FILTER, name, false, predicate, 0));
+	}
+
+	public <R> Pipeline<S, R> pureMap(String name, Function<? super T, ? extends R> mapper) {
+		return with(new Stage(Kind.MAP, name, true, mapper, 0));
+	}
+
+	public <R> Pipeline<S, R> map(String name, Function<? super T, ? extends R> mapper) {
+		return with(new Stage(Kind.MAP, name, false, mapper, 0));
+	}
+
+	public Pipeline<S, T> peek(String name, Consumer<? super T> action) {
+		return with(new Stage(Kind.PEEK, name, false, action, 0));
+	}
+
+	public Pipeline<S, T> sorted(String name, Comparator<? super T> comparator) {
+		return with(new Stage(Kind.SORTED, name, true, comparator, 0));
+	}
+
+	public Pipeline<S, T> limit(long maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException(Long.toString(maxSize));
+		}
+		return with(new Stage(Kind.LIMIT, null, true, null, maxSize));
+	}
+
+	/**
+	 * The stages as they will be executed.
+	 */
+	List<Stage> plan(List<String> appliedRules) {
+		List<Stage> plan = new ArrayList<>(stages);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 1; i < plan.size(); i++) {
+				Stage previous = plan.get(i - 1);
+				Stage stage = plan.get(i);
+				if (stage.kind == Kind.FILTER && stage.pure && previous.kind == Kind.SORTED) {
+					Collections.swap(plan, i - 1, i);
+					appliedRules.add(stage + " moved before " + previous);
+					changed = true;
+				} else if (stage.kind == Kind.LIMIT && previous.kind == Kind.MAP && previous.pure) {
+					Collections.swap(plan, i - 1, i);
+					appliedRules.add(stage + " moved before " + previous);
+					changed = true;
+				}
+			}
+		}
+		for (int i = 1; i < plan.size(); i++) {
+			Stage previous = plan.get(i - 1);
+			Stage stage = plan.get(i);
+			if (stage.kind == Kind.LIMIT && previous.kind == Kind.SORTED) {
+				Stage topK = new Stage(Kind.TOP_K, previous.name, true, previous.function, stage.limit);
+				plan.remove(i);
+				plan.set(i - 1, topK);
+				appliedRules.add(previous + " + " + stage + " fused into " + topK);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Builds the optimized java.util.stream pipeline. Nothing is executed until a terminal operation is invoked.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public Stream<T> stream() {
+		Stream stream = source.get();
+		for (Stage stage : plan(new ArrayList<>())) {
+			switch (stage.kind) {
+				case WHERE:
+				case FILTER:
+					stream = stream.filter((Predicate) stage.function);
+					break;
+				case MAP:
+					stream = stream.map((Function) stage.function);
+					break;
+				case PEEK:
+					stream = stream.peek((Consumer) stage.function);
+					break;
+				case SORTED:
+					stream = stream.sorted((Comparator) stage.function);
+					break;
+				case LIMIT:
+					stream = stream.limit(stage.limit);
+					break;
+				case TOP_K:
+					stream = TopK.sorted(stream, (Comparator) stage.function, stage.limit);
+					break;
+			}
+		}
+		return stream;
+	}
+
+	public List<T> toList() {
+		return stream().collect(Collectors.toList());
+	}
+
+	public String explain() {
+		List<String> appliedRules = new ArrayList<>();
+		List<Stage> plan = plan(appliedRules);
+		StringBuilder builder = new StringBuilder();
+		builder.append("declared: source");
+		stages.forEach(s -> builder.append(" -> ").append(s));
+		builder.append(System.lineSeparator()).append("executed: source");
+		plan.forEach(s -> builder.append(" -> ").append(s));
+		appliedRules.forEach(r -> builder.append(System.lineSeparator()).append("  ").append(r));
+		return builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		return explain();
+	}
+
+}
@@ -1,5 +1,9 @@
 package tutorial_011.advancedStreamsTests._02.processingOrder;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class ProcessingOrderTest {
@@ -216,5 +220,72 @@ public class ProcessingOrderTest {
 		 * In this example sorted is never been called because filter reduces the input collection to just one element. So the performance 
 		 * is greatly increased for larger input collections.
 		 */
+		System.out.println("=====================================");
+
+		/*
+		 * Printing from every lambda is fine for five strings but useless under load. StreamProfiler wraps the lambdas of a pipeline 
+		 * and reports, once the terminal operation finished, how many elements reached each stage and how long each stage took. Only 
+		 * the given fraction of the executions is profiled (here all of them) :
+		 */
+		StreamProfiler profiler = new StreamProfiler(1.0, System.out::println);
+		StreamProfiler.Profile profile = profiler.start("sortedFirst");
+
+		List<String> result = profile.run(() -> Stream.of("d2", "a2", "b1", "b3", "c")
+		    .sorted(profile.comparator("compareTo", Comparator.<String>naturalOrder()))
+		    .filter(profile.filter("startsWithA", s -> s.startsWith("a")))
+		    .map(profile.map("toUpperCase", String::toUpperCase))
+		    .collect(Collectors.toList()));
+
+		System.out.println(result);	// [A2]
+
+		/*
+		 * This output something like :
+		 * "
+		 	sortedFirst: 1184072 ns
+			  sorted   compareTo            comparisons=8, 20375 ns
+			  filter   startsWithA          in=5, out=1, selectivity=0.200, 4209 ns
+			  map      toUpperCase          in=1, out=1, selectivity=1.000, 1542 ns
+		 * "
+		 */
+		System.out.println("=====================================");
+
+		/*
+		 * Instead of reordering the operations by hand, Pipeline lets us declare them in any order and moves the side-effect-free 
+		 * ones where they are cheapest. A whereSource() filter tests the source elements before the map, a pure filter
+		 * declared after sorted() is evaluated before it :
+		 */
+		Pipeline<String, String> pipeline = Pipeline.from(Arrays.asList("d2", "a2", "b1", "b3", "c", "a3"))
+		    .whereSource("startsWithA", s -> s.startsWith("a"))
+		    .pureMap("toUpperCase", String::toUpperCase)
+		    .sorted("compareTo", Comparator.naturalOrder())
+		    .pureFilter("endsWith2", s -> s.endsWith("2"))
+		    .limit(1);
+
+		System.out.println(pipeline.explain());
+		System.out.println(pipeline.toList());	// [A2]
+
+		/*
+		 * This output :
+		 * "
+		 	declared: source -> whereSource(startsWithA) -> pureMap(toUpperCase) -> sorted(compareTo) -> pureFilter(endsWith2) -> limit(1)
+			executed: source -> whereSource(startsWithA) -> pureMap(toUpperCase) -> pureFilter(endsWith2) -> topK(compareTo, 1)
+			  pureFilter(endsWith2) moved before sorted(compareTo)
+			  sorted(compareTo) + limit(1) fused into topK(compareTo, 1)
+		 * "
+		 */
+		System.out.println("=====================================");
+
+		/*
+		 * The topK stage is TopK, which can also be used directly : it keeps the k first elements in a heap bounded to k elements, 
+		 * so it compares each element with the worst retained one instead of sorting the whole stream. Any comparator works, 
+		 * e.g. the reversed one of StreamsTest :
+		 */
+		List<String> lastTwo = Stream.of("d2", "a2", "b1", "b3", "c")
+		    .collect(TopK.smallest(2, (s1, s2) -> s2.compareTo(s1)));
+
+		System.out.println(lastTwo);	// [d2, c]
+
+		TopK.sorted(Stream.of("d2", "a2", "b1", "b3", "c").parallel(), Comparator.naturalOrder(), 3)
+		    .forEach(System.out::println);	// a2, b1, b3 : like sorted().limit(3)
 	}
 }
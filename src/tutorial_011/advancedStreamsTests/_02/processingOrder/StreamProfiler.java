@@ -0,0 +1,249 @@
+package tutorial_011.advancedStreamsTests._02.processingOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Counts how many elements reach each stage of a stream pipeline and how long each stage takes, which is what the
+ * System.out.println() calls of ProcessingOrderTest show by hand.
+ *
+ * The lambdas of the pipeline are wrapped by a Profile : each wrapper counts the elements it receives (and, for a
+ * filter, the elements it lets through) and accumulates the nanoseconds spent in the wrapped lambda only. Counters are
+ * LongAdders, so parallel pipelines don't contend on them. The report is published once the terminal operation
+ * run through Profile.run() finishes :
+ * "
+ 	StreamProfiler profiler = new StreamProfiler(0.01, System.out::println);
+ 	StreamProfiler.Profile profile = profiler.start("upperA");
+ 	List<String> result = profile.run(() -> stream
+ 	        .filter(profile.filter("startsWithA", s -> s.startsWith("a")))
+ 	        .sorted(profile.comparator("sort", Comparator.naturalOrder()))
+ 	        .map(profile.map("toUpperCase", String::toUpperCase))
+ 	        .collect(Collectors.toList()));
+ * "
+ * Only a sampleRate fraction of the executions is profiled. The other ones get an inactive Profile which returns the
+ * lambdas unwrapped, so they run at full speed.
+ */
+public class StreamProfiler {
+
+	final double sampleRate;
+	final Consumer<Report> listener;
+
+	/**
+	 * @param sampleRate fraction of the executions to profile, between 0 and 1.
+	 * @param listener receives the report of every profiled execution.
+	 */
+	public StreamProfiler(double sampleRate, Consumer<Report> listener) {
+		if (sampleRate < 0 || sampleRate > 1) {
+			throw new IllegalArgumentException("sampleRate must be between 0 and 1: " + sampleRate);
+		}
+		this.sampleRate = sampleRate;
+		this.listener = listener;
+	}
+
+	/**
+	 * Starts profiling one execution of the named pipeline, if this execution is sampled.
+	 */
+	public Profile start(String pipeline) {
+		boolean sampled = sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+		return sampled ? new Profile(pipeline, listener) : Profile.INACTIVE;
+	}
+
+	public static class Profile {
+
+		static final Profile INACTIVE = new Profile(null, null);
+
+		final String pipeline;
+		final Consumer<Report> listener;
+		final List<Stage> stages = Collections.synchronizedList(new ArrayList<>());
+
+		Profile(String pipeline, Consumer<Report> listener) {
+			this.pipeline = pipeline;
+			this.listener = listener;
+		}
+
+		public boolean isActive() {
+			return this != INACTIVE;
+		}
+
+		public <T> Predicate<T> filter(String name, Predicate<T> predicate) {
+			if (!isActive()) {
+				return predicate;
+			}
+			Stage stage = stage(name, "filter");
+			return t -> {
+				long start = System.nanoTime();
+				boolean passed = predicate.test(t);
+				stage.nanos.add(System.nanoTime() - start);
+				stage.in.increment();
+				if (passed) {
+					stage.out.increment();
+				}
+				return passed;
+			};
+		}
+
+		public <T, R> Function<T, R> map(String name, Function<T, R> mapper) {
+			if (!isActive()) {
+				return mapper;
+			}
+			Stage stage = stage(name, "map");
+			return t -> {
+				long start = System.nanoTime();
+				R result = mapper.apply(t);
+				stage.nanos.add(System.nanoTime() - start);
+				stage.in.increment();
+				stage.out.increment();
+				return result;
+			};
+		}
+
+		public <T> Consumer<T> consumer(String name, Consumer<T> action) {
+			if (!isActive()) {
+				return action;
+			}
+			Stage stage = stage(name, "consumer");
+			return t -> {
+				long start = System.nanoTime();
+				action.accept(t);
+				stage.nanos.add(System.nanoTime() - start);
+				stage.in.increment();
+				stage.out.increment();
+			};
+		}
+
+		/**
+		 * Counts the elements passing at this point of the pipeline, to be used with peek(), e.g. right before sorted().
+		 */
+		public <T> Consumer<T> probe(String name) {
+			if (!isActive()) {
+				return t -> {};
+			}
+			Stage stage = stage(name, "probe");
+			return t -> {
+				stage.in.increment();
+				stage.out.increment();
+			};
+		}
+
+		/**
+		 * For sorted(comparator) : "in" counts the comparisons instead of the elements.
+		 */
+		public <T> Comparator<T> comparator(String name, Comparator<T> comparator) {
+			if (!isActive()) {
+				return comparator;
+			}
+			Stage stage = stage(name, "sorted");
+			return (t1, t2) -> {
+				long start = System.nanoTime();
+				int result = comparator.compare(t1, t2);
+				stage.nanos.add(System.nanoTime() - start);
+				stage.in.increment();
+				return result;
+			};
+		}
+
+		/**
+		 * Runs the terminal operation of the pipeline, then publishes the report when the execution was sampled.
+		 */
+		public <R> R run(Supplier<R> terminal) {
+			if (!isActive()) {
+				return terminal.get();
+			}
+			long start = System.nanoTime();
+			R result = terminal.get();
+			listener.accept(report(System.nanoTime() - start));
+			return result;
+		}
+
+		Stage stage(String name, String kind) {
+			Stage stage = new Stage(name, kind);
+			stages.add(stage);
+			return stage;
+		}
+
+		Report report(long totalNanos) {
+			List<StageReport> reports = new ArrayList<>();
+			synchronized (stages) {
+				for (Stage stage : stages) {
+					reports.add(new StageReport(stage.name, stage.kind, stage.in.sum(), stage.out.sum(), stage.nanos.sum()));
+				}
+			}
+			return new Report(pipeline, totalNanos, reports);
+		}
+	}
+
+	static class Stage {
+
+		final String name;
+		final String kind;
+		final LongAdder in = new LongAdder();
+		final LongAdder out = new LongAdder();
+		final LongAdder nanos = new LongAdder();
+
+		Stage(String name, String kind) {
+			this.name = name;
+			this.kind = kind;
+		}
+	}
+
+	public static class StageReport {
+
+		public final String name;
+		public final String kind;
+		public final long in;
+		public final long out;
+		public final long nanos;
+
+		StageReport(String name, String kind, long in, long out, long nanos) {
+			this.name = name;
+			this.kind = kind;
+			this.in = in;
+			this.out = out;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Fraction of the received elements a filter lets through (1 for the other stages, NaN if nothing was received).
+		 */
+		public double selectivity() {
+			return in == 0 ? Double.NaN : (double) out / in;
+		}
+
+		@Override
+		public String toString() {
+			if (kind.equals("sorted")) {
+				return String.format("%-8s %-20s comparisons=%d, %d ns", kind, name, in, nanos);
+			}
+			return String.format("%-8s %-20s in=%d, out=%d, selectivity=%.3f, %d ns", kind, name, in, out, selectivity(), nanos);
+		}
+	}
+
+	public static class Report {
+
+		public final String pipeline;
+		public final long totalNanos;
+		public final List<StageReport> stages;
+
+		Report(String pipeline, long totalNanos, List<StageReport> stages) {
+			this.pipeline = pipeline;
+			this.totalNanos = totalNanos;
+			this.stages = Collections.unmodifiableList(stages);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder(String.format("%s: %d ns", pipeline, totalNanos));
+			stages.forEach(s -> builder.append(System.lineSeparator()).append("  ").append(s));
+			return builder.toString();
+		}
+	}
+
+}
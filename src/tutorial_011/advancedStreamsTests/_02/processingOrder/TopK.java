@@ -0,0 +1,180 @@
+package tutorial_011.advancedStreamsTests._02.processingOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * The k first elements in comparator order, without sorting the whole stream : sorted(comparator).limit(k) costs
+ * O(n log n) time and O(n) memory, a heap bounded to k elements costs O(n log k) time and O(k) memory.
+ *
+ * The heap keeps the worst retained element at its root, so an element which doesn't beat it is dropped after a single
+ * comparison and nothing is allocated for it. Among equal elements the first encountered are kept and returned first,
+ * exactly like sorted().limit(k) on an ordered stream. On a parallel stream every leaf fills its own heap and two heaps
+ * are merged by offering the elements of the right one to the left one.
+ * "
+ 	List<String> smallest = stream.collect(TopK.smallest(3, Comparator.naturalOrder()));
+ 	List<String> largest = stream.collect(TopK.largest(3, Comparator.naturalOrder()));	// as sorted((a, b) -> b.compareTo(a)).limit(3)
+ 	Stream<String> firstThree = TopK.sorted(stream, String.CASE_INSENSITIVE_ORDER, 3);	// as sorted(...).limit(3)
+ * "
+ */
+public class TopK {
+
+	private TopK() {
+	}
+
+	/**
+	 * The k smallest elements in comparator order, sorted.
+	 */
+	public static <T> Collector<T, ?, List<T>> smallest(int k, Comparator<? super T> comparator) {
+		if (k < 0) {
+			throw new IllegalArgumentException(Integer.toString(k));
+		}
+		return Collector.of(
+				() -> new Heap<T>(comparator, k),
+				Heap::add,
+				Heap::merge,
+				Heap::toSortedList);
+	}
+
+	/**
+	 * The k largest elements in comparator order, sorted from the largest.
+	 */
+	public static <T> Collector<T, ?, List<T>> largest(int k, Comparator<? super T> comparator) {
+		return smallest(k, Collections.reverseOrder(comparator));
+	}
+
+	/**
+	 * Lazy equivalent of stream.sorted(comparator).limit(k) : the heap is filled when the first element is requested.
+	 */
+	public static <T> Stream<T> sorted(Stream<T> stream, Comparator<? super T> comparator, long k) {
+		int bound = (int) Math.min(k, Integer.MAX_VALUE);
+		Stream<T> sorted = Stream.of(stream).flatMap(s -> s.collect(smallest(bound, comparator)).stream());
+		return stream.isParallel() ? sorted.parallel() : sorted;
+	}
+
+	/**
+	 * Bounded binary max-heap of (element, encounter index), ordered by comparator then index, in two parallel arrays.
+	 */
+	static class Heap<T> {
+
+		final Comparator<? super T> comparator;
+		final int k;
+		Object[] elements;
+		long[] indexes;
+		int size;
+		long seen;	// elements offered to this heap, i.e. the encounter index of the next one
+
+		Heap(Comparator<? super T> comparator, int k) {
+			this.comparator = comparator;
+			this.k = k;
+			int capacity = Math.min(k, 16);
+			this.elements = new Object[capacity];
+			this.indexes = new long[capacity];
+		}
+
+		@SuppressWarnings("unchecked")
+		int compare(int i, int j) {
+			int c = comparator.compare((T) elements[i], (T) elements[j]);
+			return c != 0 ? c : Long.compare(indexes[i], indexes[j]);
+		}
+
+		void add(T element) {
+			offer(element, seen++);
+		}
+
+		@SuppressWarnings("unchecked")
+		void offer(T element, long index) {
+			if (size < k) {
+				if (size == elements.length) {
+					int capacity = (int) Math.min(k, Math.max(16L, size * 2L));
+					elements = Arrays.copyOf(elements, capacity);
+					indexes = Arrays.copyOf(indexes, capacity);
+				}
+				elements[size] = element;
+				indexes[size] = index;
+				siftUp(size++);
+				return;
+			}
+			if (k == 0) {
+				return;
+			}
+			int c = comparator.compare(element, (T) elements[0]);
+			if (c < 0 || (c == 0 && index < indexes[0])) {
+				elements[0] = element;
+				indexes[0] = index;
+				siftDown(0, size);
+			}
+		}
+
+		void siftUp(int i) {
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (compare(i, parent) <= 0) {
+					return;
+				}
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		void siftDown(int i, int end) {
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= end) {
+					return;
+				}
+				if (child + 1 < end && compare(child + 1, child) > 0) {
+					child++;
+				}
+				if (compare(i, child) >= 0) {
+					return;
+				}
+				swap(i, child);
+				i = child;
+			}
+		}
+
+		void swap(int i, int j) {
+			Object element = elements[i];
+			elements[i] = elements[j];
+			elements[j] = element;
+			long index = indexes[i];
+			indexes[i] = indexes[j];
+			indexes[j] = index;
+		}
+
+		/**
+		 * Merges the heap of the elements encountered after the ones of this heap.
+		 */
+		@SuppressWarnings("unchecked")
+		Heap<T> merge(Heap<T> next) {
+			for (int i = 0; i < next.size; i++) {
+				offer((T) next.elements[i], seen + next.indexes[i]);
+			}
+			seen += next.seen;
+			return this;
+		}
+
+		/**
+		 * Heap sort in place : the root, the largest retained element, is moved to the end until the heap is empty.
+		 */
+		@SuppressWarnings("unchecked")
+		List<T> toSortedList() {
+			for (int end = size - 1; end > 0; end--) {
+				swap(0, end);
+				siftDown(0, end);
+			}
+			List<T> list = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				list.add((T) elements[i]);
+			}
+			return list;
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+package tutorial_011.advancedStreamsTests._03.reusingStreams;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A stream source which can be consumed any number of times, as an alternative to the Supplier<Stream<T>> of
+ * ReusingStreamsTest which re-runs the whole upstream pipeline on every get().
+ *
+ * The upstream stream is consumed lazily, element by element, the first time a consumer needs an element that was not
+ * read yet. Every element is stored in a shared buffer, so later consumers replay it from memory. A short-circuiting
+ * terminal operation like anyMatch() only pulls the prefix it actually reads; the next consumer continues from there.
+ * Several threads may consume replayable streams at the same time : pulling from upstream is serialised by a lock,
+ * while replaying the already buffered prefix doesn't lock.
+ * "
+ 	ReplayableStream<String> replayable = ReplayableStream.of(() -> Stream.of("d2", "a2", "b1", "b3", "c")
+ 	        .filter(s -> s.startsWith("a")));
+ 	replayable.stream().anyMatch(s -> true);	// runs the filter on "d2" and "a2" only
+ 	replayable.stream().noneMatch(s -> true);	// replays "a2" from the buffer, then filters the rest
+ * "
+ */
+public class ReplayableStream<T> {
+
+	static final int INITIAL_CAPACITY = 16;
+
+	final ReentrantLock lock = new ReentrantLock();
+	Supplier<? extends Stream<T>> upstreamSupplier;	// guarded by lock, null once opened
+	Spliterator<T> upstream;	// guarded by lock
+	RuntimeException failure;	// guarded by lock
+
+	volatile Object[] buffer = new Object[INITIAL_CAPACITY];
+	volatile int size;
+	volatile boolean complete;
+
+	ReplayableStream(Supplier<? extends Stream<T>> upstreamSupplier) {
+		this.upstreamSupplier = upstreamSupplier;
+	}
+
+	/**
+	 * @param upstream created the first time an element is needed, then consumed once.
+	 */
+	public static <T> ReplayableStream<T> of(Supplier<? extends Stream<T>> upstream) {
+		return new ReplayableStream<>(Objects.requireNonNull(upstream));
+	}
+
+	public static <T> ReplayableStream<T> of(Stream<T> upstream) {
+		Objects.requireNonNull(upstream);
+		return new ReplayableStream<>(() -> upstream);
+	}
+
+	/**
+	 * A new sequential stream over all the elements of the upstream stream, in encounter order.
+	 */
+	public Stream<T> stream() {
+		Spliterator<T> spliterator = complete ? arraySpliterator(0, size) : new ReplaySpliterator(0);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * A new parallel stream over all the elements. The upstream stream is fully consumed first, so that the buffer can be
+	 * split evenly.
+	 */
+	public Stream<T> parallelStream() {
+		materialize();
+		return StreamSupport.stream(arraySpliterator(0, size), true);
+	}
+
+	/**
+	 * Consumes whatever remains of the upstream stream.
+	 */
+	public ReplayableStream<T> materialize() {
+		while (!complete) {
+			pull(Integer.MAX_VALUE);
+		}
+		return this;
+	}
+
+	public boolean isMaterialized() {
+		return complete;
+	}
+
+	/**
+	 * Number of elements pulled from upstream so far.
+	 */
+	public int bufferedCount() {
+		return size;
+	}
+
+	/**
+	 * Pulls upstream elements until more than index elements are buffered or upstream is exhausted.
+	 */
+	void pull(int index) {
+		lock.lock();
+		try {
+			if (failure != null) {
+				throw failure;
+			}
+			if (upstream == null && !complete) {
+				upstream = upstreamSupplier.get().spliterator();
+				upstreamSupplier = null;
+			}
+			try {
+				while (!complete && size <= index) {
+					if (!upstream.tryAdvance(this::append)) {
+						complete = true;
+						upstream = null;
+					}
+				}
+			} catch (RuntimeException e) {
+				failure = e;
+				upstream = null;
+				throw e;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Called with the lock held. The element is written before the new size is published, so a reader which sees the
+	 * new size also sees the element.
+	 */
+	void append(T element) {
+		Object[] elements = buffer;
+		int n = size;
+		if (n == elements.length) {
+			if (n == Integer.MAX_VALUE - 8) {
+				throw new OutOfMemoryError("ReplayableStream buffer is full");
+			}
+			elements = Arrays.copyOf(elements, (int) Math.min(Integer.MAX_VALUE - 8, n + (long) (n >> 1) + 1));
+			elements[n] = element;
+			buffer = elements;
+		} else {
+			elements[n] = element;
+		}
+		size = n + 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	T get(int index) {
+		return (T) buffer[index];
+	}
+
+	Spliterator<T> arraySpliterator(int from, int to) {
+		return Spliterators.spliterator(buffer, from, to, Spliterator.ORDERED);
+	}
+
+	/**
+	 * Replays the buffer from a position, pulling from upstream when it reaches the end of the buffer.
+	 */
+	class ReplaySpliterator implements Spliterator<T> {
+
+		int index;
+
+		ReplaySpliterator(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (index >= size) {
+				if (complete) {
+					return false;
+				}
+				pull(index);
+				if (index >= size) {
+					return false;
+				}
+			}
+			action.accept(get(index++));
+			return true;
+		}
+
+		/**
+		 * Only used by terminal operations which don't short-circuit, so the whole upstream is pulled at once.
+		 */
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			materialize();
+			Object[] elements = buffer;
+			int n = size;
+			while (index < n) {
+				@SuppressWarnings("unchecked")
+				T element = (T) elements[index++];
+				action.accept(element);
+			}
+		}
+
+		/**
+		 * Only a fully materialised buffer is split : splitting while upstream is still being read would force reading it.
+		 */
+		@Override
+		public Spliterator<T> trySplit() {
+			int n = size;
+			if (!complete || n - index < 2) {
+				return null;
+			}
+			int middle = (index + n) >>> 1;
+			Spliterator<T> prefix = arraySpliterator(index, middle);
+			index = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return complete ? size - index : Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED;
+		}
+	}
+
+}
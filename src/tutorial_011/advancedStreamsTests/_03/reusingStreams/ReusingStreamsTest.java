@@ -54,7 +54,35 @@ public class ReusingStreamsTest {
 		
 		/*
 		 * Each call to get() constructs a new stream on which we are save to call the desired terminal operation.
+		 * But every get() also runs the whole filter chain again. ReplayableStream runs it only once : the elements are
+		 * pulled lazily from the upstream stream and buffered, so each upstream element is filtered at most once :
 		 */
+
+		System.out.println("=====================================");
+
+		ReplayableStream<String> replayable = ReplayableStream.of(
+			    () -> Stream.of("d2", "a2", "b1", "b3", "c")
+			            .filter(s -> {
+			                System.out.println("filter: " + s);
+			                return s.startsWith("a");
+			            })
+		);
+
+		replayable.stream().anyMatch(s -> {
+			System.out.println(s);
+			return s.equals("a2");
+		}); // filter: d2, filter: a2, a2
+
+		System.out.println("=====================================");
+
+		replayable.stream().noneMatch(s -> {
+			System.out.println(s);
+			return s.equals("b1");
+		}); // a2 (replayed), filter: b1, filter: b3, filter: c
+
+		System.out.println("=====================================");
+
+		replayable.stream().forEach(System.out::println); // a2 : everything is buffered, no filter call anymore
 	}
 
 }
@@ -0,0 +1,180 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Registry of named, sized ForkJoinPools used to isolate parallel stream pipelines from each other.
+ *
+ * Parallel streams and the parallel bulk operations of ConcurrentHashMap (forEach, search, reduce...) fork their tasks
+ * into the pool of the current thread when it is a ForkJoinPool worker, and into ForkJoinPool.commonPool() otherwise.
+ * So running the whole pipeline as a task of a dedicated pool confines it to the workers of that pool, and a heavy batch
+ * pipeline can no longer starve a latency-sensitive one :
+ * "
+ 	Bulkheads bulkheads = new Bulkheads();
+ 	Bulkhead batch = bulkheads.register("batch", 6);
+ 	Bulkhead latency = bulkheads.register("latency", 2);
+
+ 	List<String> sorted = batch.invoke(() -> hugeList.parallelStream().sorted().collect(Collectors.toList()));
+ 	String found = latency.invoke(() -> map.search(1, (key, value) -> key.equals("foo") ? value : null));
+
+ 	bulkheads.metrics().forEach(System.out::println);
+ * "
+ */
+public class Bulkheads implements AutoCloseable {
+
+	final ConcurrentMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a pool of the given parallelism whose workers are named name-worker-N.
+	 *
+	 * @throws IllegalStateException if a bulkhead with this name already exists.
+	 */
+	public Bulkhead register(String name, int parallelism) {
+		Bulkhead bulkhead = new Bulkhead(name, parallelism);
+		if (bulkheads.putIfAbsent(name, bulkhead) != null) {
+			bulkhead.pool.shutdown();
+			throw new IllegalStateException("Bulkhead already registered: " + name);
+		}
+		return bulkhead;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if no bulkhead has this name.
+	 */
+	public Bulkhead get(String name) {
+		Bulkhead bulkhead = bulkheads.get(name);
+		if (bulkhead == null) {
+			throw new IllegalArgumentException("Unknown bulkhead: " + name);
+		}
+		return bulkhead;
+	}
+
+	/**
+	 * Metrics of every registered bulkhead, plus the common pool for comparison.
+	 */
+	public List<Metrics> metrics() {
+		List<Metrics> metrics = new ArrayList<>();
+		bulkheads.values().forEach(b -> metrics.add(b.metrics()));
+		metrics.add(Metrics.of("commonPool", ForkJoinPool.commonPool(), -1));
+		return Collections.unmodifiableList(metrics);
+	}
+
+	/**
+	 * Shuts every pool down, waiting up to 60 seconds for running pipelines.
+	 */
+	@Override
+	public void close() {
+		bulkheads.values().forEach(b -> b.pool.shutdown());
+		for (Bulkhead bulkhead : bulkheads.values()) {
+			try {
+				bulkhead.pool.awaitTermination(60, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		bulkheads.clear();
+	}
+
+	public static class Bulkhead {
+
+		final String name;
+		final ForkJoinPool pool;
+		final LongAdder invocations = new LongAdder();
+
+		Bulkhead(String name, int parallelism) {
+			AtomicInteger workerIndex = new AtomicInteger();
+			this.name = name;
+			this.pool = new ForkJoinPool(parallelism, p -> {
+				ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+				worker.setName(name + "-worker-" + workerIndex.incrementAndGet());
+				return worker;
+			}, null, false);
+		}
+
+		public String name() {
+			return name;
+		}
+
+		/**
+		 * Runs the pipeline as a task of this bulkhead's pool and waits for its result. Unchecked exceptions thrown by the
+		 * pipeline are rethrown as is.
+		 */
+		public <R> R invoke(Supplier<R> pipeline) {
+			invocations.increment();
+			return pool.invoke(ForkJoinTask.adapt(pipeline::get));
+		}
+
+		public void run(Runnable pipeline) {
+			invocations.increment();
+			pool.invoke(ForkJoinTask.adapt(pipeline));
+		}
+
+		public Metrics metrics() {
+			return Metrics.of(name, pool, invocations.sum());
+		}
+	}
+
+	/**
+	 * Snapshot of the state of a pool.
+	 */
+	public static class Metrics {
+
+		public final String name;
+		public final int parallelism;
+		public final int poolSize;
+		public final int activeWorkers;
+		public final int runningWorkers;
+		public final long queuedTasks;
+		public final int queuedSubmissions;
+		public final long stealCount;
+		public final long invocations;
+
+		Metrics(String name, int parallelism, int poolSize, int activeWorkers, int runningWorkers, long queuedTasks,
+				int queuedSubmissions, long stealCount, long invocations) {
+			this.name = name;
+			this.parallelism = parallelism;
+			this.poolSize = poolSize;
+			this.activeWorkers = activeWorkers;
+			this.runningWorkers = runningWorkers;
+			this.queuedTasks = queuedTasks;
+			this.queuedSubmissions = queuedSubmissions;
+			this.stealCount = stealCount;
+			this.invocations = invocations;
+		}
+
+		/**
+		 * @param invocations pipelines submitted through a bulkhead, -1 when unknown.
+		 */
+		public static Metrics of(String name, ForkJoinPool pool, long invocations) {
+			return new Metrics(name, pool.getParallelism(), pool.getPoolSize(), pool.getActiveThreadCount(),
+					pool.getRunningThreadCount(), pool.getQueuedTaskCount(), pool.getQueuedSubmissionCount(),
+					pool.getStealCount(), invocations);
+		}
+
+		/**
+		 * Tasks waiting in the work queues of the workers plus submissions not yet picked up.
+		 */
+		public long queueDepth() {
+			return queuedTasks + queuedSubmissions;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: parallelism=%d, poolSize=%d, active=%d, running=%d, queueDepth=%d, steals=%d, invocations=%d",
+					name, parallelism, poolSize, activeWorkers, runningWorkers, queueDepth(), stealCount, invocations);
+		}
+	}
+
+}
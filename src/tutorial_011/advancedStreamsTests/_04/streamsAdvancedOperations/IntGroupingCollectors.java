@@ -0,0 +1,643 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Grouping collectors for int keys, the primitive counterpart of Collectors.groupingBy(p -> p.age) used in
+ * _01_CollectTest, which boxes every key into an Integer and hashes it into a HashMap.
+ *
+ * Keys are mapped to group slots by an IntIndex : a plain array indexed by key - base as long as the keys fall in a
+ * dense range (ages, months, small codes...), an open-addressing int table once they spread too much. The downstream
+ * accumulations are stored in arrays indexed by slot, and the counting, summing and averaging downstreams keep
+ * primitive long / double arrays, so nothing is boxed per element :
+ * "
+ 	IntGroups<List<Person>> personsByAge = persons.stream()
+ 	        .collect(IntGroupingCollectors.groupingBy(p -> p.age));
+ 	IntLongGroups countByAge = persons.stream()
+ 	        .collect(IntGroupingCollectors.groupingBy(p -> p.age, IntGroupingCollectors.counting()));
+ 	IntDoubleGroups averageNameLengthByAge = persons.parallelStream()
+ 	        .collect(IntGroupingCollectors.groupingBy(p -> p.age, IntGroupingCollectors.averagingInt(p -> p.name.length())));
+ * "
+ * The groups of the results are sorted by key. Parallel streams are supported : the partial groupings of two leaves
+ * are combined slot by slot, the left one first, so list downstreams keep the encounter order.
+ */
+public class IntGroupingCollectors {
+
+	private IntGroupingCollectors() {
+	}
+
+	public static <T> Collector<T, ?, IntGroups<List<T>>> groupingBy(ToIntFunction<? super T> classifier) {
+		return groupingBy(classifier, toList());
+	}
+
+	public static <T, R> Collector<T, ?, R> groupingBy(ToIntFunction<? super T> classifier, Downstream<T, R> downstream) {
+		return Collector.of(
+				() -> new Grouping<>(classifier, downstream.newContainer()),
+				Grouping::accept,
+				Grouping::combine,
+				Grouping::finish);
+	}
+
+	public static <T> Downstream<T, IntGroups<List<T>>> toList() {
+		return collecting(Collectors.toList());
+	}
+
+	/**
+	 * Any collector as downstream, e.g. Collectors.mapping(p -> p.name, Collectors.joining(", ")). Its containers are
+	 * kept per group, so it saves the key boxing and hashing but not the boxing done by the collector itself.
+	 */
+	public static <T, A, D> Downstream<T, IntGroups<D>> collecting(Collector<? super T, A, D> collector) {
+		return new ObjectDownstream<>(collector);
+	}
+
+	public static <T> Downstream<T, IntLongGroups> counting() {
+		return new LongDownstream<>(t -> 1L, false);
+	}
+
+	public static <T> Downstream<T, IntLongGroups> summingInt(ToIntFunction<? super T> mapper) {
+		return new LongDownstream<>(mapper::applyAsInt, false);
+	}
+
+	public static <T> Downstream<T, IntLongGroups> summingLong(ToLongFunction<? super T> mapper) {
+		return new LongDownstream<>(mapper, false);
+	}
+
+	public static <T> Downstream<T, IntDoubleGroups> summingDouble(ToDoubleFunction<? super T> mapper) {
+		return new DoubleDownstream<>(mapper, false);
+	}
+
+	public static <T> Downstream<T, IntDoubleGroups> averagingInt(ToIntFunction<? super T> mapper) {
+		return new LongDownstream<>(mapper::applyAsInt, true);
+	}
+
+	public static <T> Downstream<T, IntDoubleGroups> averagingLong(ToLongFunction<? super T> mapper) {
+		return new LongDownstream<>(mapper, true);
+	}
+
+	public static <T> Downstream<T, IntDoubleGroups> averagingDouble(ToDoubleFunction<? super T> mapper) {
+		return new DoubleDownstream<>(mapper, true);
+	}
+
+	/**
+	 * Mutable container of the collectors : the key index plus the downstream accumulations of every slot.
+	 */
+	static class Grouping<T, R> {
+
+		final ToIntFunction<? super T> classifier;
+		final Downstream<T, R> downstream;
+		final IntIndex index = new IntIndex();
+		int capacity;
+
+		Grouping(ToIntFunction<? super T> classifier, Downstream<T, R> downstream) {
+			this.classifier = classifier;
+			this.downstream = downstream;
+		}
+
+		int slot(int key) {
+			int slot = index.slot(key);
+			if (slot == capacity) {
+				capacity = Math.max(8, capacity + (capacity >> 1));
+				downstream.grow(capacity);
+			}
+			return slot;
+		}
+
+		void accept(T element) {
+			downstream.accept(slot(classifier.applyAsInt(element)), element);
+		}
+
+		/**
+		 * Adds the groups of the elements encountered after the ones of this grouping.
+		 */
+		Grouping<T, R> combine(Grouping<T, R> other) {
+			for (int otherSlot = 0; otherSlot < other.index.size; otherSlot++) {
+				downstream.combine(slot(other.index.keys[otherSlot]), other.downstream, otherSlot);
+			}
+			return this;
+		}
+
+		R finish() {
+			int size = index.size;
+			long[] keysAndSlots = new long[size];
+			for (int slot = 0; slot < size; slot++) {
+				keysAndSlots[slot] = ((long) index.keys[slot] << 32) | slot;
+			}
+			Arrays.sort(keysAndSlots);
+			int[] keys = new int[size];
+			int[] slots = new int[size];
+			for (int i = 0; i < size; i++) {
+				keys[i] = (int) (keysAndSlots[i] >> 32);
+				slots[i] = (int) keysAndSlots[i];
+			}
+			return downstream.finish(keys, slots);
+		}
+	}
+
+	/**
+	 * Maps int keys to slots 0, 1, 2... in the order the keys are first seen.
+	 */
+	static class IntIndex {
+
+		static final int MIN_DENSE_SPAN = 1 << 10;
+		static final int DENSE_SPAN_PER_KEY = 8;	// a dense array may be this much larger than the number of keys
+
+		int[] keys = new int[8];	// key of each slot
+		int size;
+
+		int[] dense = new int[0];	// dense[key - base] = slot + 1, 0 for a key without slot; null in sparse mode
+		int base;
+		int[] table;	// open addressing, slot + 1 per cell, 0 for an empty cell; null in dense mode
+
+		int slot(int key) {
+			if (dense != null) {
+				long offset = (long) key - base;
+				if (offset < 0 || offset >= dense.length) {
+					if (growDense(key)) {
+						offset = (long) key - base;
+					} else {
+						toSparse();
+						return sparseSlot(key);
+					}
+				}
+				int cell = dense[(int) offset];
+				if (cell != 0) {
+					return cell - 1;
+				}
+				int slot = add(key);
+				dense[(int) offset] = slot + 1;
+				return slot;
+			}
+			return sparseSlot(key);
+		}
+
+		int add(int key) {
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+			}
+			keys[size] = key;
+			return size++;
+		}
+
+		/**
+		 * Extends the dense array to cover key, unless it would become too sparse.
+		 */
+		boolean growDense(int key) {
+			boolean empty = dense.length == 0;
+			long low = empty ? key : Math.min(base, key);
+			long high = empty ? key : Math.max(base + (long) dense.length - 1, key);
+			long maxSpan = Math.max(MIN_DENSE_SPAN, (long) DENSE_SPAN_PER_KEY * (size + 1));
+			long span = high - low + 1;
+			if (span > maxSpan) {
+				return false;
+			}
+			long length = Math.min(maxSpan, Math.max(span, Math.max(16, 2L * dense.length)));
+			long newBase = !empty && key < base ? high - length + 1 : low;
+			newBase = Math.max(Integer.MIN_VALUE, Math.min(newBase, Integer.MAX_VALUE - length + 1));
+			int[] grown = new int[(int) length];
+			if (!empty) {
+				System.arraycopy(dense, 0, grown, (int) (base - newBase), dense.length);
+			}
+			dense = grown;
+			base = (int) newBase;
+			return true;
+		}
+
+		void toSparse() {
+			dense = null;
+			rehash(Math.max(16, Integer.highestOneBit(size * 4 + 1)));
+		}
+
+		void rehash(int capacity) {
+			table = new int[capacity];
+			int mask = capacity - 1;
+			for (int slot = 0; slot < size; slot++) {
+				int cell = hash(keys[slot]) & mask;
+				while (table[cell] != 0) {
+					cell = (cell + 1) & mask;
+				}
+				table[cell] = slot + 1;
+			}
+		}
+
+		int sparseSlot(int key) {
+			int mask = table.length - 1;
+			int cell = hash(key) & mask;
+			while (table[cell] != 0) {
+				int slot = table[cell] - 1;
+				if (keys[slot] == key) {
+					return slot;
+				}
+				cell = (cell + 1) & mask;
+			}
+			int slot = add(key);
+			table[cell] = slot + 1;
+			if (size * 2 > table.length) {
+				rehash(table.length * 2);
+			}
+			return slot;
+		}
+
+		static int hash(int key) {
+			int h = key * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+
+	/**
+	 * Accumulation of the elements of every group, in arrays indexed by slot. The instances given to groupingBy() are
+	 * prototypes : every partial grouping accumulates into its own newContainer().
+	 */
+	public abstract static class Downstream<T, R> {
+
+		Downstream() {
+		}
+
+		abstract Downstream<T, R> newContainer();
+
+		abstract void grow(int capacity);
+
+		abstract void accept(int slot, T element);
+
+		abstract void combine(int slot, Downstream<T, R> other, int otherSlot);
+
+		/**
+		 * @param keys the keys of the groups, sorted.
+		 * @param slots slots[i] is the slot of keys[i].
+		 */
+		abstract R finish(int[] keys, int[] slots);
+	}
+
+	static class ObjectDownstream<T, A, D> extends Downstream<T, IntGroups<D>> {
+
+		final Collector<? super T, A, D> collector;
+		final Supplier<A> supplier;
+		final BiConsumer<A, ? super T> accumulator;
+		final BinaryOperator<A> combiner;
+		Object[] containers = new Object[0];
+
+		ObjectDownstream(Collector<? super T, A, D> collector) {
+			this.collector = collector;
+			this.supplier = collector.supplier();
+			this.accumulator = collector.accumulator();
+			this.combiner = collector.combiner();
+		}
+
+		@Override
+		Downstream<T, IntGroups<D>> newContainer() {
+			return new ObjectDownstream<>(collector);
+		}
+
+		@Override
+		void grow(int capacity) {
+			containers = Arrays.copyOf(containers, capacity);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		void accept(int slot, T element) {
+			A container = (A) containers[slot];
+			if (container == null) {
+				containers[slot] = container = supplier.get();
+			}
+			accumulator.accept(container, element);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		void combine(int slot, Downstream<T, IntGroups<D>> other, int otherSlot) {
+			A right = (A) ((ObjectDownstream<T, A, D>) other).containers[otherSlot];
+			A left = (A) containers[slot];
+			containers[slot] = left == null ? right : combiner.apply(left, right);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		IntGroups<D> finish(int[] keys, int[] slots) {
+			Function<A, D> finisher = collector.finisher();
+			Object[] values = new Object[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				values[i] = finisher.apply((A) containers[slots[i]]);
+			}
+			return new IntGroups<>(keys, values);
+		}
+	}
+
+	/**
+	 * Sums of long values per group, and their counts when averaging.
+	 */
+	static class LongDownstream<T, R> extends Downstream<T, R> {
+
+		final ToLongFunction<? super T> mapper;
+		final boolean average;
+		long[] sums = new long[0];
+		long[] counts = new long[0];
+
+		LongDownstream(ToLongFunction<? super T> mapper, boolean average) {
+			this.mapper = mapper;
+			this.average = average;
+		}
+
+		@Override
+		Downstream<T, R> newContainer() {
+			return new LongDownstream<>(mapper, average);
+		}
+
+		@Override
+		void grow(int capacity) {
+			sums = Arrays.copyOf(sums, capacity);
+			if (average) {
+				counts = Arrays.copyOf(counts, capacity);
+			}
+		}
+
+		@Override
+		void accept(int slot, T element) {
+			sums[slot] += mapper.applyAsLong(element);
+			if (average) {
+				counts[slot]++;
+			}
+		}
+
+		@Override
+		void combine(int slot, Downstream<T, R> other, int otherSlot) {
+			LongDownstream<T, R> right = (LongDownstream<T, R>) other;
+			sums[slot] += right.sums[otherSlot];
+			if (average) {
+				counts[slot] += right.counts[otherSlot];
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		R finish(int[] keys, int[] slots) {
+			if (average) {
+				double[] averages = new double[keys.length];
+				for (int i = 0; i < keys.length; i++) {
+					averages[i] = (double) sums[slots[i]] / counts[slots[i]];
+				}
+				return (R) new IntDoubleGroups(keys, averages);
+			}
+			long[] values = new long[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				values[i] = sums[slots[i]];
+			}
+			return (R) new IntLongGroups(keys, values);
+		}
+	}
+
+	/**
+	 * Kahan-compensated sums of double values per group, like Collectors.summingDouble(), and their counts when
+	 * averaging.
+	 */
+	static class DoubleDownstream<T> extends Downstream<T, IntDoubleGroups> {
+
+		final ToDoubleFunction<? super T> mapper;
+		final boolean average;
+		double[] sums = new double[0];
+		double[] compensations = new double[0];
+		double[] simpleSums = new double[0];	// without compensation, for the infinite sums
+		long[] counts = new long[0];
+
+		DoubleDownstream(ToDoubleFunction<? super T> mapper, boolean average) {
+			this.mapper = mapper;
+			this.average = average;
+		}
+
+		@Override
+		Downstream<T, IntDoubleGroups> newContainer() {
+			return new DoubleDownstream<>(mapper, average);
+		}
+
+		@Override
+		void grow(int capacity) {
+			sums = Arrays.copyOf(sums, capacity);
+			compensations = Arrays.copyOf(compensations, capacity);
+			simpleSums = Arrays.copyOf(simpleSums, capacity);
+			if (average) {
+				counts = Arrays.copyOf(counts, capacity);
+			}
+		}
+
+		void add(int slot, double value) {
+			double y = value - compensations[slot];
+			double t = sums[slot] + y;
+			compensations[slot] = (t - sums[slot]) - y;
+			sums[slot] = t;
+		}
+
+		@Override
+		void accept(int slot, T element) {
+			double value = mapper.applyAsDouble(element);
+			add(slot, value);
+			simpleSums[slot] += value;
+			if (average) {
+				counts[slot]++;
+			}
+		}
+
+		@Override
+		void combine(int slot, Downstream<T, IntDoubleGroups> other, int otherSlot) {
+			DoubleDownstream<T> right = (DoubleDownstream<T>) other;
+			add(slot, right.sums[otherSlot]);
+			add(slot, -right.compensations[otherSlot]);
+			simpleSums[slot] += right.simpleSums[otherSlot];
+			if (average) {
+				counts[slot] += right.counts[otherSlot];
+			}
+		}
+
+		@Override
+		IntDoubleGroups finish(int[] keys, int[] slots) {
+			double[] values = new double[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				int slot = slots[i];
+				double sum = sums[slot] - compensations[slot];
+				if (Double.isNaN(sum) && Double.isInfinite(simpleSums[slot])) {
+					sum = simpleSums[slot];	// the compensation of an infinite sum is NaN, as in Collectors.summingDouble()
+				}
+				values[i] = average ? sum / counts[slot] : sum;
+			}
+			return new IntDoubleGroups(keys, values);
+		}
+	}
+
+	/**
+	 * Groups sorted by key. They are iterated by position, without boxing :
+	 * "
+	 	for (int i = 0; i < groups.size(); i++) {
+	 	    System.out.format("age %d: %d\n", groups.keyAt(i), groups.valueAt(i));
+	 	}
+	 * "
+	 */
+	public abstract static class AbstractIntGroups {
+
+		final int[] keys;
+
+		AbstractIntGroups(int[] keys) {
+			this.keys = keys;
+		}
+
+		public int size() {
+			return keys.length;
+		}
+
+		public int keyAt(int index) {
+			return keys[index];
+		}
+
+		/**
+		 * Position of the group of key, or a negative value if there is no such group.
+		 */
+		public int indexOf(int key) {
+			return Arrays.binarySearch(keys, key);
+		}
+
+		public boolean containsKey(int key) {
+			return indexOf(key) >= 0;
+		}
+
+		public int[] keys() {
+			return keys.clone();
+		}
+
+		abstract Object boxedValueAt(int index);
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder("{");
+			for (int i = 0; i < keys.length; i++) {
+				if (i > 0) {
+					builder.append(", ");
+				}
+				builder.append(keys[i]).append('=').append(boxedValueAt(i));
+			}
+			return builder.append('}').toString();
+		}
+	}
+
+	public static class IntGroups<D> extends AbstractIntGroups {
+
+		final Object[] values;
+
+		IntGroups(int[] keys, Object[] values) {
+			super(keys);
+			this.values = values;
+		}
+
+		@SuppressWarnings("unchecked")
+		public D valueAt(int index) {
+			return (D) values[index];
+		}
+
+		/**
+		 * The value of the group of key, or null if there is no such group.
+		 */
+		public D get(int key) {
+			int index = indexOf(key);
+			return index >= 0 ? valueAt(index) : null;
+		}
+
+		public List<D> values() {
+			List<D> list = new ArrayList<>(values.length);
+			for (int i = 0; i < values.length; i++) {
+				list.add(valueAt(i));
+			}
+			return Collections.unmodifiableList(list);
+		}
+
+		/**
+		 * Boxed copy, sorted by key, for the APIs expecting the result of Collectors.groupingBy().
+		 */
+		public Map<Integer, D> toMap() {
+			Map<Integer, D> map = new LinkedHashMap<>();
+			for (int i = 0; i < keys.length; i++) {
+				map.put(keys[i], valueAt(i));
+			}
+			return map;
+		}
+
+		@Override
+		Object boxedValueAt(int index) {
+			return values[index];
+		}
+	}
+
+	public static class IntLongGroups extends AbstractIntGroups {
+
+		final long[] values;
+
+		IntLongGroups(int[] keys, long[] values) {
+			super(keys);
+			this.values = values;
+		}
+
+		public long valueAt(int index) {
+			return values[index];
+		}
+
+		public long getOrDefault(int key, long defaultValue) {
+			int index = indexOf(key);
+			return index >= 0 ? values[index] : defaultValue;
+		}
+
+		public Map<Integer, Long> toMap() {
+			Map<Integer, Long> map = new LinkedHashMap<>();
+			for (int i = 0; i < keys.length; i++) {
+				map.put(keys[i], values[i]);
+			}
+			return map;
+		}
+
+		@Override
+		Object boxedValueAt(int index) {
+			return values[index];
+		}
+	}
+
+	public static class IntDoubleGroups extends AbstractIntGroups {
+
+		final double[] values;
+
+		IntDoubleGroups(int[] keys, double[] values) {
+			super(keys);
+			this.values = values;
+		}
+
+		public double valueAt(int index) {
+			return values[index];
+		}
+
+		public double getOrDefault(int key, double defaultValue) {
+			int index = indexOf(key);
+			return index >= 0 ? values[index] : defaultValue;
+		}
+
+		public Map<Integer, Double> toMap() {
+			Map<Integer, Double> map = new LinkedHashMap<>();
+			for (int i = 0; i < keys.length; i++) {
+				map.put(keys[i], values[i]);
+			}
+			return map;
+		}
+
+		@Override
+		Object boxedValueAt(int index) {
+			return values[index];
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collector;
+
+/**
+ * Joining collectors which copy every fragment once into char buffers and build the result once, exactly sized.
+ *
+ * reduce((s1, s2) -> s1 + "#" + s2) of StreamsTest copies the whole result so far at every element, which is quadratic.
+ * StringJoiner and Collectors.joining() append into a StringBuilder which is copied each time it grows, and merging two
+ * of them on a parallel stream copies the right one into the left one. Here each leaf appends its fragments and
+ * delimiters into a chain of char buffers, a new buffer being chained when the current one is full instead of being
+ * copied. Combining two leaves only appends the buffer references of the right one, plus a shared buffer holding the
+ * delimiter. The finisher copies the buffers into a char[] of exactly prefix + fragments + delimiters + suffix chars.
+ *
+ * The charMapper is applied to the chars of the fragments right after they are copied into the buffer, e.g.
+ * Character::toUpperCase for the personNameCollector of _01_CollectTest, without creating an upper case String per name :
+ * "
+ 	String names = persons.stream()
+ 	        .collect(JoiningCollectors.joining(p -> p.name, " | ", "", "", Character::toUpperCase));	// MAX | PETER | PAMELA | DAVID
+ * "
+ * Note that the mapping is char by char : unlike String.toUpperCase() it doesn't depend on the locale and doesn't turn
+ * one char into several ("ß" stays "ß").
+ */
+public class JoiningCollectors {
+
+	static final int MIN_BUFFER_SIZE = 64;
+	static final int MAX_BUFFER_SIZE = 1 << 20;
+	static final int MAX_RESULT_LENGTH = Integer.MAX_VALUE - 8;
+
+	private JoiningCollectors() {
+	}
+
+	public static Collector<CharSequence, ?, String> joining() {
+		return joining("", "", "");
+	}
+
+	public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+		return joining(delimiter, "", "");
+	}
+
+	public static Collector<CharSequence, ?, String> joining(CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
+		return joining(Function.identity(), delimiter, prefix, suffix, null);
+	}
+
+	/**
+	 * @param mapper gives the fragment of each element, e.g. p -> p.name, without a map() stage before the collector.
+	 * @param charMapper applied to every char of the fragments (not of the delimiter, prefix and suffix), or null.
+	 */
+	public static <T> Collector<T, ?, String> joining(Function<? super T, ? extends CharSequence> mapper,
+			CharSequence delimiter, CharSequence prefix, CharSequence suffix, IntUnaryOperator charMapper) {
+		char[] delimiterChars = delimiter.toString().toCharArray();
+		String prefixString = prefix.toString();
+		String suffixString = suffix.toString();
+		return Collector.of(
+				() -> new Fragments(delimiterChars, charMapper),
+				(fragments, t) -> fragments.add(mapper.apply(t)),
+				Fragments::combine,
+				fragments -> fragments.toString(prefixString, suffixString));
+	}
+
+	/**
+	 * The fragments of a leaf, delimiters included, in a chain of buffers : chunks[0..chunkCount) are complete, the last
+	 * buffer being filled is buffer[0..position).
+	 */
+	static class Fragments {
+
+		final char[] delimiter;
+		final IntUnaryOperator charMapper;
+
+		char[][] chunks = new char[4][];
+		int[] chunkLengths = new int[4];
+		int chunkCount;
+
+		char[] buffer;
+		int position;
+
+		long length;	// chars of the fragments and the delimiters
+		long count;	// fragments
+
+		Fragments(char[] delimiter, IntUnaryOperator charMapper) {
+			this.delimiter = delimiter;
+			this.charMapper = charMapper;
+		}
+
+		/**
+		 * Appends fragment, "null" for a null one like Collectors.joining() does.
+		 */
+		void add(CharSequence fragment) {
+			if (count++ > 0 && delimiter.length > 0) {
+				write(delimiter);
+			}
+			String string = String.valueOf(fragment);
+			int from = 0;
+			int end = string.length();
+			while (from < end) {
+				if (buffer == null || position == buffer.length) {
+					newBuffer(end - from);
+				}
+				int to = Math.min(end, from + buffer.length - position);
+				string.getChars(from, to, buffer, position);
+				if (charMapper != null) {
+					for (int i = position, last = position + to - from; i < last; i++) {
+						buffer[i] = (char) charMapper.applyAsInt(buffer[i]);
+					}
+				}
+				position += to - from;
+				from = to;
+			}
+			length += end;
+		}
+
+		void write(char[] chars) {
+			int from = 0;
+			while (from < chars.length) {
+				if (buffer == null || position == buffer.length) {
+					newBuffer(chars.length - from);
+				}
+				int n = Math.min(chars.length - from, buffer.length - position);
+				System.arraycopy(chars, from, buffer, position, n);
+				position += n;
+				from += n;
+			}
+			length += chars.length;
+		}
+
+		/**
+		 * Chains a new buffer, about as large as everything written so far, so that there are few buffers.
+		 */
+		void newBuffer(int needed) {
+			seal();
+			int size = (int) Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, Math.max(needed, length)));
+			buffer = new char[size];
+		}
+
+		/**
+		 * Moves the buffer being filled to the complete chunks.
+		 */
+		void seal() {
+			if (buffer != null && position > 0) {
+				addChunk(buffer, position);
+			}
+			buffer = null;
+			position = 0;
+		}
+
+		void addChunk(char[] chunk, int chunkLength) {
+			if (chunkCount == chunks.length) {
+				chunks = Arrays.copyOf(chunks, chunkCount * 2);
+				chunkLengths = Arrays.copyOf(chunkLengths, chunkCount * 2);
+			}
+			chunks[chunkCount] = chunk;
+			chunkLengths[chunkCount++] = chunkLength;
+		}
+
+		/**
+		 * Appends the fragments encountered after the ones of this leaf : only buffer references are copied.
+		 */
+		Fragments combine(Fragments next) {
+			if (next.count == 0) {
+				return this;
+			}
+			if (count == 0) {
+				return next;
+			}
+			seal();
+			next.seal();
+			if (delimiter.length > 0) {
+				addChunk(delimiter, delimiter.length);
+				length += delimiter.length;
+			}
+			for (int i = 0; i < next.chunkCount; i++) {
+				addChunk(next.chunks[i], next.chunkLengths[i]);
+			}
+			length += next.length;
+			count += next.count;
+			return this;
+		}
+
+		String toString(String prefix, String suffix) {
+			long total = prefix.length() + length + suffix.length();
+			if (total > MAX_RESULT_LENGTH) {
+				throw new OutOfMemoryError("Joined string too long: " + total + " chars");
+			}
+			char[] result = new char[(int) total];
+			prefix.getChars(0, prefix.length(), result, 0);
+			int offset = prefix.length();
+			for (int i = 0; i < chunkCount; i++) {
+				System.arraycopy(chunks[i], 0, result, offset, chunkLengths[i]);
+				offset += chunkLengths[i];
+			}
+			if (buffer != null) {
+				System.arraycopy(buffer, 0, result, offset, position);
+				offset += position;
+			}
+			suffix.getChars(0, suffix.length(), result, offset);
+			return new String(result);
+		}
+	}
+
+}
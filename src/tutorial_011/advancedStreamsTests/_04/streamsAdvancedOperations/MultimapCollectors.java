@@ -0,0 +1,149 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * toMap() collectors keeping every value of a duplicated key, instead of the merge function of _01_CollectTest.
+ *
+ * (name1, name2) -> name1 + ";" + name2 builds a new String at every collision, so a key with n values costs O(n²)
+ * chars copied. Here the values of each key are appended to a growable array, trimmed to its size at the end, and the
+ * optional finisher is applied once per key :
+ * "
+ 	Map<Integer, List<String>> namesByAge = persons.stream()
+ 	        .collect(MultimapCollectors.toMultimap(p -> p.age, p -> p.name));
+ 	Map<Integer, String> joinedNamesByAge = persons.stream()
+ 	        .collect(MultimapCollectors.toMultimap(p -> p.age, p -> p.name, names -> String.join(";", names)));	// {18=Max, 23=Peter;Pamela, 12=David}
+ * "
+ * On a parallel stream the maps of two leaves are merged by appending the value arrays of the right one, which keeps
+ * the encounter order of the values. The concurrent variants accumulate into a single ConcurrentHashMap instead, so
+ * nothing is merged, but the order of the values of a key is then unspecified. The value lists of the results are
+ * read-only.
+ */
+public class MultimapCollectors {
+
+	private MultimapCollectors() {
+	}
+
+	public static <T, K, V> Collector<T, ?, Map<K, List<V>>> toMultimap(Function<? super T, ? extends K> keyMapper,
+			Function<? super T, ? extends V> valueMapper) {
+		return toMultimap(keyMapper, valueMapper, Function.identity());
+	}
+
+	/**
+	 * @param finisher applied once to the values of each key, e.g. names -> String.join(";", names). Must not return null.
+	 */
+	public static <T, K, V, R> Collector<T, ?, Map<K, R>> toMultimap(Function<? super T, ? extends K> keyMapper,
+			Function<? super T, ? extends V> valueMapper, Function<? super List<V>, ? extends R> finisher) {
+		return Collector.<T, Map<K, Values<V>>, Map<K, R>> of(
+				HashMap::new,
+				(map, t) -> map.computeIfAbsent(keyMapper.apply(t), k -> new Values<>()).append(valueMapper.apply(t)),
+				(map1, map2) -> {
+					map2.forEach((k, values) -> map1.merge(k, values, Values::appendAll));
+					return map1;
+				},
+				map -> finish(map, finisher));
+	}
+
+	public static <T, K, V> Collector<T, ?, ConcurrentMap<K, List<V>>> toConcurrentMultimap(
+			Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends V> valueMapper) {
+		return toConcurrentMultimap(keyMapper, valueMapper, Function.identity());
+	}
+
+	/**
+	 * Concurrent variant : every thread appends to the same ConcurrentHashMap, the values of a key being appended under
+	 * the lock of their array.
+	 */
+	public static <T, K, V, R> Collector<T, ?, ConcurrentMap<K, R>> toConcurrentMultimap(
+			Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends V> valueMapper,
+			Function<? super List<V>, ? extends R> finisher) {
+		return Collector.<T, ConcurrentMap<K, Values<V>>, ConcurrentMap<K, R>> of(
+				ConcurrentHashMap::new,
+				(map, t) -> {
+					K key = keyMapper.apply(t);
+					Values<V> values = map.get(key);	// get() first : computeIfAbsent() locks even when the key is present
+					if (values == null) {
+						values = map.computeIfAbsent(key, k -> new Values<>());
+					}
+					V value = valueMapper.apply(t);
+					synchronized (values) {
+						values.append(value);
+					}
+				},
+				(map1, map2) -> {
+					map2.forEach((k, values) -> map1.merge(k, values, Values::appendAll));
+					return map1;
+				},
+				map -> finish(map, finisher),
+				Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * Trims the arrays and applies the finisher in place, like Collectors.groupingBy() does for its downstream finisher.
+	 * A null result is rejected in both variants, since ConcurrentHashMap cannot hold it.
+	 */
+	@SuppressWarnings("unchecked")
+	static <K, V, R, M extends Map<K, R>> M finish(Map<K, Values<V>> map, Function<? super List<V>, ? extends R> finisher) {
+		BiFunction<K, Object, Object> finish = (k, values) -> Objects.requireNonNull(
+				finisher.apply(((Values<V>) values).trim()), () -> "The finisher returned null for the key " + k);
+		((Map<K, Object>) (Map<K, ?>) map).replaceAll(finish);
+		return (M) map;
+	}
+
+	/**
+	 * Read-only list over a growable array.
+	 */
+	static class Values<V> extends AbstractList<V> implements RandomAccess {
+
+		Object[] elements = new Object[2];
+		int size;
+
+		void append(V value) {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+			}
+			elements[size++] = value;
+		}
+
+		Values<V> appendAll(Values<V> next) {
+			if (size + next.size > elements.length) {
+				elements = Arrays.copyOf(elements, Math.max(size + next.size, size + (size >> 1) + 1));
+			}
+			System.arraycopy(next.elements, 0, elements, size, next.size);
+			size += next.size;
+			return this;
+		}
+
+		Values<V> trim() {
+			if (size < elements.length) {
+				elements = Arrays.copyOf(elements, size);
+			}
+			return this;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V get(int index) {
+			if (index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return (V) elements[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+}
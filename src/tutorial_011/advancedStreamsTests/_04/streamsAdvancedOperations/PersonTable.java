@@ -0,0 +1,409 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Persons stored column by column : an int[] of ages and an int[] of name codes, the names themselves being stored once
+ * in a dictionary. A row costs 8 bytes instead of a Person object (header, int, reference) plus its reference in a List,
+ * and aggregating the ages reads one contiguous int[] instead of chasing a pointer per Person.
+ *
+ * The aggregates and filters process the rows by chunks of CHUNK_SIZE, on a parallel stream of chunk indexes once the
+ * table is large enough, so they run on the current ForkJoinPool (or the common pool) like any parallel stream :
+ * "
+ 	PersonTable table = PersonTable.of(persons);
+ 	IntSummaryStatistics ageSummary = table.summarizeAges();
+ 	PersonTable adults = table.filterByAge(age -> age >= 18);
+ 	Map<String, Long> countByName = adults.countByName();
+ * "
+ * persons() gives a List<Person> view when objects are needed, creating a Person per get(). A table is not thread-safe
+ * while rows are being added; once built it may be read by any number of threads.
+ */
+public class PersonTable {
+
+	static final int CHUNK_SIZE = 1 << 14;
+	static final int MAX_HISTOGRAM_SPAN = 1 << 20;
+
+	/**
+	 * The distinct names, shared by a table and the tables filtered from it. A shared dictionary is copied by the first
+	 * of these tables adding a row, so that adding to one of them never modifies the dictionary the others read.
+	 */
+	static class Dictionary {
+
+		final List<String> names;
+		final Map<String, Integer> codes;
+		boolean shared;
+
+		Dictionary() {
+			names = new ArrayList<>();
+			codes = new HashMap<>();
+		}
+
+		Dictionary(Dictionary dictionary) {
+			names = new ArrayList<>(dictionary.names);
+			codes = new HashMap<>(dictionary.codes);
+		}
+
+		int encode(String name) {
+			Integer code = codes.get(name);
+			if (code == null) {
+				code = names.size();
+				names.add(name);
+				codes.put(name, code);
+			}
+			return code;
+		}
+
+		String decode(int code) {
+			return names.get(code);
+		}
+
+		int size() {
+			return names.size();
+		}
+	}
+
+	Dictionary dictionary;
+	int[] ages;
+	int[] nameCodes;
+	int size;
+
+	public PersonTable() {
+		this(16);
+	}
+
+	public PersonTable(int initialCapacity) {
+		this(new Dictionary(), new int[initialCapacity], new int[initialCapacity], 0);
+	}
+
+	PersonTable(Dictionary dictionary, int[] ages, int[] nameCodes, int size) {
+		this.dictionary = dictionary;
+		this.ages = ages;
+		this.nameCodes = nameCodes;
+		this.size = size;
+	}
+
+	public static PersonTable of(Collection<Person> persons) {
+		PersonTable table = new PersonTable(persons.size());
+		persons.forEach(table::add);
+		return table;
+	}
+
+	public void add(Person person) {
+		add(person.name, person.age);
+	}
+
+	public void add(String name, int age) {
+		if (size == ages.length) {
+			int capacity = Math.max(16, size + (size >> 1));
+			ages = Arrays.copyOf(ages, capacity);
+			nameCodes = Arrays.copyOf(nameCodes, capacity);
+		}
+		if (dictionary.shared) {
+			dictionary = new Dictionary(dictionary);
+		}
+		ages[size] = age;
+		nameCodes[size] = dictionary.encode(name);
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int age(int row) {
+		checkRow(row);
+		return ages[row];
+	}
+
+	public String name(int row) {
+		checkRow(row);
+		return dictionary.decode(nameCodes[row]);
+	}
+
+	public IntStream ages() {
+		return Arrays.stream(ages, 0, size);
+	}
+
+	/**
+	 * Same result as persons.stream().collect(Collectors.summarizingInt(p -> p.age)).
+	 */
+	public IntSummaryStatistics summarizeAges() {
+		int[] ages = this.ages;
+		return chunks().mapToObj(c -> {
+			IntSummaryStatistics statistics = new IntSummaryStatistics();
+			for (int i = chunkStart(c), end = chunkEnd(c); i < end; i++) {
+				statistics.accept(ages[i]);
+			}
+			return statistics;
+		}).reduce((s1, s2) -> {
+			s1.combine(s2);
+			return s1;
+		}).orElseGet(IntSummaryStatistics::new);
+	}
+
+	public long sumAges() {
+		int[] ages = this.ages;
+		return chunks().mapToLong(c -> {
+			long sum = 0;
+			for (int i = chunkStart(c), end = chunkEnd(c); i < end; i++) {
+				sum += ages[i];
+			}
+			return sum;
+		}).sum();
+	}
+
+	/**
+	 * Same result as persons.stream().collect(Collectors.averagingInt(p -> p.age)) : 0 for an empty table.
+	 */
+	public double averageAge() {
+		return size == 0 ? 0 : (double) sumAges() / size;
+	}
+
+	public PersonTable filterByAge(IntPredicate predicate) {
+		int[] ages = this.ages;
+		return select(row -> predicate.test(ages[row]));
+	}
+
+	/**
+	 * The predicate is evaluated once per distinct name, not once per row.
+	 */
+	public PersonTable filterByName(Predicate<? super String> predicate) {
+		boolean[] accepted = new boolean[dictionary.size()];
+		for (int code = 0; code < accepted.length; code++) {
+			accepted[code] = predicate.test(dictionary.decode(code));
+		}
+		int[] codes = nameCodes;
+		return select(row -> accepted[codes[row]]);
+	}
+
+	/**
+	 * Collects the selected rows of every chunk in parallel, then copies them into a table sharing the dictionary until
+	 * one of them adds a row.
+	 */
+	PersonTable select(IntPredicate predicate) {
+		int[] ages = this.ages;
+		int[] codes = nameCodes;
+		int[][] selectedRows = chunks().mapToObj(c -> {
+			int start = chunkStart(c);
+			int end = chunkEnd(c);
+			int[] rows = new int[end - start];
+			int count = 0;
+			for (int i = start; i < end; i++) {
+				if (predicate.test(i)) {
+					rows[count++] = i;
+				}
+			}
+			return Arrays.copyOf(rows, count);
+		}).toArray(int[][]::new);
+		int total = 0;
+		for (int[] rows : selectedRows) {
+			total += rows.length;
+		}
+		int[] selectedAges = new int[total];
+		int[] selectedCodes = new int[total];
+		int n = 0;
+		for (int[] rows : selectedRows) {
+			for (int row : rows) {
+				selectedAges[n] = ages[row];
+				selectedCodes[n] = codes[row];
+				n++;
+			}
+		}
+		dictionary.shared = true;
+		return new PersonTable(dictionary, selectedAges, selectedCodes, total);
+	}
+
+	/**
+	 * Number of persons per age, sorted by age. Ages are counted in a histogram array per leaf task of the parallel
+	 * stream, when the span of the ages is no larger than the table.
+	 */
+	public IntGroupingCollectors.IntLongGroups countByAge() {
+		if (size == 0) {
+			return new IntGroupingCollectors.IntLongGroups(new int[0], new long[0]);
+		}
+		IntSummaryStatistics statistics = summarizeAges();
+		int min = statistics.getMin();
+		long span = (long) statistics.getMax() - min + 1;
+		if (span > MAX_HISTOGRAM_SPAN || span > size) {
+			return countSorted();
+		}
+		int[] ages = this.ages;
+		long[] histogram = chunks().collect(() -> new long[(int) span], (counts, c) -> {
+			for (int i = chunkStart(c), end = chunkEnd(c); i < end; i++) {
+				counts[ages[i] - min]++;
+			}
+		}, PersonTable::addTo);
+		return toGroups(histogram, min);
+	}
+
+	/**
+	 * Ages spread too much for a histogram : runs of a sorted copy.
+	 */
+	IntGroupingCollectors.IntLongGroups countSorted() {
+		int[] sorted = Arrays.copyOf(ages, size);
+		Arrays.parallelSort(sorted);
+		int groups = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				groups++;
+			}
+		}
+		int[] keys = new int[groups];
+		long[] values = new long[groups];
+		int n = -1;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				keys[++n] = sorted[i];
+			}
+			values[n]++;
+		}
+		return new IntGroupingCollectors.IntLongGroups(keys, values);
+	}
+
+	static IntGroupingCollectors.IntLongGroups toGroups(long[] histogram, int min) {
+		int groups = 0;
+		for (long count : histogram) {
+			if (count != 0) {
+				groups++;
+			}
+		}
+		int[] keys = new int[groups];
+		long[] values = new long[groups];
+		int n = 0;
+		for (int i = 0; i < histogram.length; i++) {
+			if (histogram[i] != 0) {
+				keys[n] = min + i;
+				values[n++] = histogram[i];
+			}
+		}
+		return new IntGroupingCollectors.IntLongGroups(keys, values);
+	}
+
+	/**
+	 * Number of persons per name, names in order of first appearance in the dictionary.
+	 */
+	public Map<String, Long> countByName() {
+		long[] counts = nameHistogram();
+		Map<String, Long> map = new LinkedHashMap<>();
+		for (int code = 0; code < counts.length; code++) {
+			if (counts[code] != 0) {
+				map.put(dictionary.decode(code), counts[code]);
+			}
+		}
+		return map;
+	}
+
+	public Map<String, Double> averageAgeByName() {
+		int[] ages = this.ages;
+		int[] codes = nameCodes;
+		int names = dictionary.size();
+		long[] sums = chunks().collect(() -> new long[names], (chunkSums, c) -> {
+			for (int i = chunkStart(c), end = chunkEnd(c); i < end; i++) {
+				chunkSums[codes[i]] += ages[i];
+			}
+		}, PersonTable::addTo);
+		long[] counts = nameHistogram();
+		Map<String, Double> map = new LinkedHashMap<>();
+		for (int code = 0; code < names; code++) {
+			if (counts[code] != 0) {
+				map.put(dictionary.decode(code), (double) sums[code] / counts[code]);
+			}
+		}
+		return map;
+	}
+
+	long[] nameHistogram() {
+		int[] codes = nameCodes;
+		int names = dictionary.size();
+		return chunks().collect(() -> new long[names], (counts, c) -> {
+			for (int i = chunkStart(c), end = chunkEnd(c); i < end; i++) {
+				counts[codes[i]]++;
+			}
+		}, PersonTable::addTo);
+	}
+
+	static long[] addTo(long[] counts, long[] other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other[i];
+		}
+		return counts;
+	}
+
+	/**
+	 * A view of the rows as Person objects. Every get() creates a new Person : modifying it doesn't modify the table.
+	 */
+	public List<Person> persons() {
+		return new PersonView();
+	}
+
+	public Stream<Person> stream() {
+		return persons().stream();
+	}
+
+	/**
+	 * Approximate number of bytes used by the columns and the dictionary.
+	 */
+	public long footprint() {
+		long columns = 2L * (16 + 4L * ages.length);
+		long names = 0;
+		for (String name : dictionary.names) {
+			names += 40 + 2L * name.length() + 48;	// String object and its array, plus its entries in the list and the map
+		}
+		return columns + names;
+	}
+
+	@Override
+	public String toString() {
+		return persons().toString();
+	}
+
+	/**
+	 * The chunk indexes, as a parallel stream when there is more than one chunk.
+	 */
+	IntStream chunks() {
+		int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		IntStream stream = IntStream.range(0, chunks);
+		return chunks > 1 ? stream.parallel() : stream;
+	}
+
+	static int chunkStart(int chunk) {
+		return chunk * CHUNK_SIZE;
+	}
+
+	int chunkEnd(int chunk) {
+		return (int) Math.min(size, (long) (chunk + 1) * CHUNK_SIZE);
+	}
+
+	void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+		}
+	}
+
+	class PersonView extends AbstractList<Person> implements RandomAccess {
+
+		@Override
+		public Person get(int row) {
+			return new Person(name(row), age(row));
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * flatMap without an inner stream per element : the mapper pushes the children of an element directly into a sink,
+ * like Stream.mapMulti() of Java 16.
+ *
+ * flatMap(f -> f.bars.stream()) of _02_FlatMapTest builds a whole stream pipeline for each Foo, and on Java 8 the inner
+ * stream is always pushed entirely, even under findFirst() or anyMatch(). Here :
+ * - a terminal operation which doesn't short-circuit (forEach, collect, reduce...) has the mapper push its children
+ *   straight into the downstream operations, nothing is allocated per element;
+ * - a short-circuiting one pulls the elements one by one : the children of the current element are kept in a reusable
+ *   buffer and the next element is only mapped once they are consumed, so findFirst() maps a single element.
+ * Parallel streams split the upstream elements as usual.
+ * "
+ 	Stream<Bar> bars = PushFlatMap.flatMapIterable(foos.stream(), f -> f.bars);
+ 	Stream<Bar> bars = PushFlatMap.<Foo, Bar>flatMap(foos.stream(), (f, sink) -> f.bars.forEach(sink));
+ * "
+ */
+public class PushFlatMap {
+
+	private PushFlatMap() {
+	}
+
+	/**
+	 * @param mapper called with each element and a sink accepting its children, valid during the call only.
+	 */
+	public static <T, R> Stream<R> flatMap(Stream<T> stream, BiConsumer<? super T, ? super Consumer<R>> mapper) {
+		Spliterator<R> spliterator = new FlatMapSpliterator<>(stream.spliterator(), mapper);
+		return StreamSupport.stream(spliterator, stream.isParallel()).onClose(stream::close);
+	}
+
+	/**
+	 * The children of each element are the elements of the Iterable returned by the mapper (null for none), e.g. a
+	 * List field of the element, iterated with forEach().
+	 */
+	public static <T, R> Stream<R> flatMapIterable(Stream<T> stream, Function<? super T, ? extends Iterable<? extends R>> mapper) {
+		return flatMap(stream, (T t, Consumer<R> sink) -> {
+			Iterable<? extends R> children = mapper.apply(t);
+			if (children != null) {
+				children.forEach(sink);
+			}
+		});
+	}
+
+	static class FlatMapSpliterator<T, R> implements Spliterator<R>, Consumer<R> {
+
+		final Spliterator<T> upstream;
+		final BiConsumer<? super T, ? super Consumer<R>> mapper;
+		final Consumer<T> mapIntoBuffer;
+
+		// children of the current element not consumed yet, in buffer[head, tail)
+		Object[] buffer = new Object[0];
+		int head;
+		int tail;
+
+		FlatMapSpliterator(Spliterator<T> upstream, BiConsumer<? super T, ? super Consumer<R>> mapper) {
+			this.upstream = upstream;
+			this.mapper = mapper;
+			this.mapIntoBuffer = t -> mapper.accept(t, this);
+		}
+
+		/**
+		 * Sink of the mapper in tryAdvance() : buffers a child.
+		 */
+		@Override
+		public void accept(R child) {
+			if (tail == buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(8, tail * 2));
+			}
+			buffer[tail++] = child;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super R> action) {
+			while (head == tail) {
+				head = 0;
+				tail = 0;
+				if (!upstream.tryAdvance(mapIntoBuffer)) {
+					return false;
+				}
+			}
+			@SuppressWarnings("unchecked")
+			R child = (R) buffer[head];
+			buffer[head++] = null;
+			action.accept(child);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super R> action) {
+			while (head < tail) {
+				@SuppressWarnings("unchecked")
+				R child = (R) buffer[head];
+				buffer[head++] = null;
+				action.accept(child);
+			}
+			Consumer<R> sink = action::accept;
+			upstream.forEachRemaining(t -> mapper.accept(t, sink));
+		}
+
+		/**
+		 * Buffered children come before the elements of a split prefix, so there is no split while some are left.
+		 */
+		@Override
+		public Spliterator<R> trySplit() {
+			if (head < tail) {
+				return null;
+			}
+			Spliterator<T> prefix = upstream.trySplit();
+			return prefix == null ? null : new FlatMapSpliterator<>(prefix, mapper);
+		}
+
+		/**
+		 * The number of upstream elements, so that parallel streams split as they would the upstream stream.
+		 */
+		@Override
+		public long estimateSize() {
+			return upstream.estimateSize();
+		}
+
+		@Override
+		public int characteristics() {
+			return upstream.characteristics() & Spliterator.ORDERED;
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+package tutorial_011.advancedStreamsTests._04.streamsAdvancedOperations;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Reductions into mutable accumulators which are correct on parallel streams.
+ *
+ * _03_ReduceTest reduces into the identity new Person("", 0) by mutating its fields : on a parallel stream every leaf
+ * starts from that same identity instance and mutates it concurrently. And reduce(0, (sum, p) -> sum += p.age, ...)
+ * boxes a new Integer at every step. Here every fork/join leaf gets its own accumulator from a supplier, mutates it
+ * without synchronisation since a leaf runs on a single thread, and the accumulators are combined only when two leaves
+ * are joined. The int, long and double variants keep the running value in a primitive field, so they allocate one
+ * accumulator per leaf and nothing per element :
+ * "
+ 	Person total = Reductions.reduce(persons.parallelStream(),
+ 	        () -> new Person("", 0),
+ 	        (acc, p) -> { acc.age += p.age; acc.name += p.name; },
+ 	        (acc1, acc2) -> { acc1.age += acc2.age; acc1.name += acc2.name; });
+ 	int ageSum = Reductions.reduceInt(persons.parallelStream(), 0, (sum, p) -> sum + p.age, Integer::sum);
+ * "
+ * The leaves and joins are the ones of Stream.collect(supplier, accumulator, combiner), which these methods run on.
+ */
+public class Reductions {
+
+	private Reductions() {
+	}
+
+	@FunctionalInterface
+	public interface IntReducer<T> {
+		int reduce(int result, T element);
+	}
+
+	@FunctionalInterface
+	public interface LongReducer<T> {
+		long reduce(long result, T element);
+	}
+
+	@FunctionalInterface
+	public interface DoubleReducer<T> {
+		double reduce(double result, T element);
+	}
+
+	/**
+	 * @param supplier must return a new accumulator on every call : an IllegalStateException is thrown if it returns
+	 *        an accumulator it already returned, which is what a shared identity would do.
+	 * @param combiner merges the second accumulator, holding the elements encountered later, into the first one.
+	 */
+	public static <T, A> A reduce(Stream<T> stream, Supplier<A> supplier, BiConsumer<A, ? super T> accumulator,
+			BiConsumer<A, ? super A> combiner) {
+		return stream.collect(checkedSupplier(supplier), accumulator, combiner::accept);
+	}
+
+	/**
+	 * Remembers every accumulator supplied, one per leaf, until the reduction is over.
+	 */
+	static <A> Supplier<A> checkedSupplier(Supplier<A> supplier) {
+		Set<A> supplied = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+		return () -> {
+			A accumulator = supplier.get();
+			if (!supplied.add(accumulator)) {
+				throw new IllegalStateException("The supplier returned the same accumulator twice: every leaf of a parallel "
+						+ "reduction needs its own accumulator");
+			}
+			return accumulator;
+		};
+	}
+
+	/**
+	 * @param identity the value each leaf starts from : reducer and combiner must leave a result unchanged when combined
+	 *        with it, like 0 for a sum.
+	 */
+	public static <T> int reduceInt(Stream<T> stream, int identity, IntReducer<? super T> reducer, IntBinaryOperator combiner) {
+		return stream.collect(
+				() -> new IntResult(identity),
+				(a, t) -> a.value = reducer.reduce(a.value, t),
+				(a1, a2) -> a1.value = combiner.applyAsInt(a1.value, a2.value)).value;
+	}
+
+	public static <T> long reduceLong(Stream<T> stream, long identity, LongReducer<? super T> reducer, LongBinaryOperator combiner) {
+		return stream.collect(
+				() -> new LongResult(identity),
+				(a, t) -> a.value = reducer.reduce(a.value, t),
+				(a1, a2) -> a1.value = combiner.applyAsLong(a1.value, a2.value)).value;
+	}
+
+	public static <T> double reduceDouble(Stream<T> stream, double identity, DoubleReducer<? super T> reducer,
+			DoubleBinaryOperator combiner) {
+		return stream.collect(
+				() -> new DoubleResult(identity),
+				(a, t) -> a.value = reducer.reduce(a.value, t),
+				(a1, a2) -> a1.value = combiner.applyAsDouble(a1.value, a2.value)).value;
+	}
+
+	static class IntResult {
+
+		int value;
+
+		IntResult(int value) {
+			this.value = value;
+		}
+	}
+
+	static class LongResult {
+
+		long value;
+
+		LongResult(long value) {
+			this.value = value;
+		}
+	}
+
+	static class DoubleResult {
+
+		double value;
+
+		DoubleResult(double value) {
+			this.value = value;
+		}
+	}
+
+}
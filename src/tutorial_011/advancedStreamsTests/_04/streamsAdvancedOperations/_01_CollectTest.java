@@ -62,6 +62,28 @@ public class _01_CollectTest {
 		
 		System.out.println("=====================================");
 		
+		/*
+		 * groupingBy boxes every age into an Integer key of a HashMap. Since ages are small ints in a dense range, 
+		 * IntGroupingCollectors groups them by an int key into array buckets instead, and its counting, summing and 
+		 * averaging downstreams accumulate into primitive arrays. The groups come sorted by age :
+		 */
+		IntGroupingCollectors.IntGroups<List<Person>> personsByIntAge = persons.stream()
+																.collect(IntGroupingCollectors.groupingBy(p -> p.age));
+
+		System.out.println(personsByIntAge); // {12=[David], 18=[Max], 23=[Peter, Pamela]}
+		
+		IntGroupingCollectors.IntLongGroups countByAge = persons.stream()
+															.collect(IntGroupingCollectors.groupingBy(p -> p.age, IntGroupingCollectors.counting()));
+
+		for (int i = 0; i < countByAge.size(); i++) {
+			System.out.format("age %d: %d\n", countByAge.keyAt(i), countByAge.valueAt(i));
+		}
+		// age 12: 1
+		// age 18: 1
+		// age 23: 2
+		
+		System.out.println("=====================================");
+		
 		/*
 		 * Collectors are extremely versatile. You can also create aggregations on the elements of the stream, 
 		 * e.g. determining the average age of all persons :
@@ -85,6 +107,18 @@ public class _01_CollectTest {
 		
 		System.out.println("=====================================");
 		
+		/*
+		 * summarizingInt reads the age of each Person object through a pointer. A PersonTable stores the same persons 
+		 * column by column (an int[] of ages, dictionary-encoded names), so its aggregates are tight loops over an int[], 
+		 * split into chunks processed in parallel on large tables :
+		 */
+		PersonTable personTable = PersonTable.of(persons);
+
+		System.out.println(personTable.summarizeAges()); // IntSummaryStatistics{count=4, sum=76, min=12, average=19.000000, max=23}
+		System.out.println(personTable.filterByAge(age -> age >= 18).countByName()); // {Max=1, Peter=1, Pamela=1}
+		
+		System.out.println("=====================================");
+		
 		/*
 		 * The next example joins all persons into a single string :
 		 */
@@ -114,6 +148,28 @@ public class _01_CollectTest {
 		
 		System.out.println("=====================================");
 		
+		/*
+		 * The merge function builds a new String at every duplicated key, which gets quadratic when many persons share an age. 
+		 * MultimapCollectors keeps all the values of a key in a growable array instead, and can join them once per key at the end. 
+		 * Its concurrent variant fills a single ConcurrentHashMap from all the threads of a parallel stream :
+		 */
+		Map<Integer, List<String>> namesByAge = persons.stream()
+												.collect(MultimapCollectors.toMultimap(p -> p.age, p -> p.name));
+
+		System.out.println(namesByAge); // {18=[Max], 23=[Peter, Pamela], 12=[David]}
+		
+		Map<Integer, String> joinedNamesByAge = persons.parallelStream()
+													.collect(MultimapCollectors.toConcurrentMultimap(
+													        p -> p.age,
+													        p -> p.name,
+													        names -> String.join(";", names) // applied once per age
+													     )
+													);
+
+		System.out.println(joinedNamesByAge); // {18=Max, 23=Peter;Pamela, 12=David}, or 23=Pamela;Peter
+		
+		System.out.println("=====================================");
+		
 		/*
 		 * Now let's build our own custom collector. We want to transform all persons of the stream into a single string consisting of all 
 		 * names in upper letters separated by the | pipe character. In order to achieve this we create a new collector via Collector.of().
@@ -137,6 +193,18 @@ public class _01_CollectTest {
 							.collect(personNameCollector);
 
 		System.out.println(names);  // MAX | PETER | PAMELA | DAVID
+		
+		System.out.println("=====================================");
+		
+		/*
+		 * Each StringJoiner grows a StringBuilder, and merging two of them copies the second one into the first. JoiningCollectors 
+		 * copies each name once into chained char buffers, upper-casing its chars in place, only links the buffers when combining, 
+		 * and builds the exactly sized String at the end :
+		 */
+		String joinedNames = persons.parallelStream()
+								.collect(JoiningCollectors.joining(p -> p.name, " | ", "", "", Character::toUpperCase));
+
+		System.out.println(joinedNames);  // MAX | PETER | PAMELA | DAVID
 	}
 
 }
@@ -57,6 +57,23 @@ public class _02_FlatMapTest {
 		
 		System.out.println("=====================================");
 		
+		/*
+		 * flatMap creates a new stream pipeline for each foo only to walk through its list of bars. PushFlatMap lets the 
+		 * mapper push the children directly into the rest of the pipeline instead, here by iterating f.bars. With a 
+		 * short-circuiting operation like findFirst, the bars of the next foo are only pushed once the previous ones are consumed :
+		 */
+		PushFlatMap.flatMapIterable(foos.stream(), f -> f.bars)
+			    .forEach(b -> System.out.println(b.name));
+		
+		PushFlatMap.<Foo, Bar>flatMap(foos.stream(), (f, sink) -> {
+			        System.out.println("flatMap: " + f.name);
+			        f.bars.forEach(sink);
+			    })
+			    .findFirst()
+			    .ifPresent(b -> System.out.println(b.name));	// flatMap: Foo1, then Bar1 <- Foo1
+		
+		System.out.println("=====================================");
+		
 		/*
 		 * FlatMap is also available for the Optional class introduced in Java 8. Optionals flatMap operation returns an optional object 
 		 * of another type. So it can be utilized to prevent nasty null checks.
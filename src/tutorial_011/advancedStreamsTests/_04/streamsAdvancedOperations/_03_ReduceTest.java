@@ -107,7 +107,29 @@ public class _03_ReduceTest {
 		/*
 		 * Executing this stream in parallel results in an entirely different execution behavior. Now the combiner is actually called. 
 		 * Since the accumulator is called in parallel, the combiner is needed to sum up the separate accumulated values.
+		 * 
+		 * Beware of the second example in parallel : every leaf accumulates into the same identity Person, concurrently. 
+		 * Reductions gives each leaf its own accumulator from a supplier and only combines them when the leaves are joined. 
+		 * Its int, long and double variants keep the running value in a primitive field instead of boxing an Integer per step :
 		 */
+		System.out.println("=====================================");
+		
+		Person parallelResult = Reductions.reduce(persons.parallelStream(),
+												() -> new Person("", 0),
+												(acc, p) -> {
+												    acc.age += p.age;
+												    acc.name += p.name;
+												},
+												(acc1, acc2) -> {
+												    acc1.age += acc2.age;
+												    acc1.name += acc2.name;
+												});
+
+		System.out.format("name=%s; age=%s \n", parallelResult.name, parallelResult.age); // name=MaxPeterPamelaDavid; age=76
+		
+		int parallelAgeSum = Reductions.reduceInt(persons.parallelStream(), 0, (sum, p) -> sum + p.age, Integer::sum);
+
+		System.out.println(parallelAgeSum);  // 76
 	}
 
 }
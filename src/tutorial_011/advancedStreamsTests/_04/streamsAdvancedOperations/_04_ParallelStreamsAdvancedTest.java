@@ -169,6 +169,32 @@ public class _04_ParallelStreamsAdvancedTest {
 		 * implementing slow blocking stream operations since that could potentially slow down other parts of our applications which rely heavily 
 		 * on parallel streams.
 		 */
+
+		System.out.println("=====================================");
+
+		/*
+		 * A parallel stream started from a task of another ForkJoinPool runs on the workers of that pool instead of the common pool.
+		 * Bulkheads uses this to give each pipeline its own named and sized pool, so that a heavy pipeline only competes with itself :
+		 */
+		try (Bulkheads bulkheads = new Bulkheads()) {
+			Bulkheads.Bulkhead reporting = bulkheads.register("reporting", 2);
+
+			int totalAge = reporting.invoke(() -> persons.parallelStream()
+			    .mapToInt(p -> {
+			        System.out.format("mapToInt: %s [%s]\n",
+			            p, Thread.currentThread().getName());
+			        return p.age;
+			    })
+			    .sum());
+
+			System.out.println(totalAge);	// 76
+			bulkheads.metrics().forEach(System.out::println);
+		}
+
+		/*
+		 * Every mapToInt line is now printed by a reporting-worker-N thread. The metrics show the parallelism, active workers, queue depth
+		 * and steal count of each pool, the common pool included.
+		 */
 	}
 
 }
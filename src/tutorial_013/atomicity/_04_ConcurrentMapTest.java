@@ -2,6 +2,9 @@ package tutorial_013.atomicity;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import tutorial_008.map.Rope;
 
 public class _04_ConcurrentMapTest {
 	public static void main(String[] args) {
@@ -74,5 +77,21 @@ public class _04_ConcurrentMapTest {
 		 */
 		map.merge("foo", "boo", (oldVal, newVal) -> newVal + " was " + oldVal);
 		System.out.println(map.get("foo"));   // boo was barbar
+		
+		System.out.println("=====================================");
+		
+		/*
+		 * compute() and merge() above copy the whole value, while holding the lock of the entry. With Rope values a 
+		 * concatenation only creates a node, so the lock is held for O(1) whatever the length of the value. A Rope never 
+		 * changes once created, so a thread reading it while others append sees a complete value :
+		 */
+		ConcurrentMap<String, Rope> ropes = new ConcurrentHashMap<>();
+		ropes.put("foo", Rope.of("bar"));
+		ropes.compute("foo", (key, value) -> Rope.concat(value, value));
+		ropes.merge("foo", Rope.of("boo was "), (oldVal, newVal) -> Rope.concat(newVal, oldVal));
+		System.out.println(ropes.get("foo"));   // boo was barbar
+		
+		IntStream.range(0, 1000).parallel().forEach(i -> Rope.appendTo(ropes, "bar", "."));
+		System.out.println(ropes.get("bar").length());   // 1000
 	}
 }